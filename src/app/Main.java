@@ -0,0 +1,76 @@
+package app;
+
+import controller.JobFairController;
+import model.Repository;
+import view.MainWindow;
+
+import javax.swing.SwingUtilities;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+public class Main {
+    public static void main(String[] args) throws Exception {
+        //โหมด training สำหรับสร้าง CDS archive: เดิน flow login → jobs → apply แบบไม่เปิดหน้าต่าง แล้วจบ
+        if (Boolean.getBoolean("jobfair.train")) {
+            TrainingRun.run(System.getProperty("jobfair.db", "database"));
+            return;
+        }
+
+        //ตัวเลือกการเก็บข้อมูล: -Djobfair.shardBy / jobfair.mmap / jobfair.remote (ดู Repository.Options.fromSystemProperties)
+        Repository.Options options = Repository.Options.fromSystemProperties();
+
+        //Repository ชี้ไปยังโฟลเดอร์ database (เปลี่ยนได้ด้วย -Djobfair.db=...)
+        Repository repo = new Repository(System.getProperty("jobfair.db", "database"), options);
+        report("time-to-data-loaded");
+
+        //Replication (ไม่บังคับ): -Djobfair.replication=leader|follower
+        //  -Djobfair.replication.host=127.0.0.1 (follower: ที่อยู่ของ leader) -Djobfair.replication.port=7070
+        //  -Djobfair.replication.bind=0.0.0.0 (leader: address ที่เปิดรอ ค่าเริ่มต้นเท่ากับ host)
+        //  -Djobfair.replication.secret=... หรือ env JOBFAIR_REPLICATION_SECRET (ต้องตรงกันทุกเครื่อง)
+        String mode = System.getProperty("jobfair.replication", "");
+        String host = System.getProperty("jobfair.replication.host", "127.0.0.1");
+        String bind = System.getProperty("jobfair.replication.bind", host);
+        int port = Integer.getInteger("jobfair.replication.port", 7070);
+        String secret = System.getProperty("jobfair.replication.secret", System.getenv("JOBFAIR_REPLICATION_SECRET"));
+        if (mode.equalsIgnoreCase("leader")) repo.startLeader(bind, port, secret);
+        else if (mode.equalsIgnoreCase("follower")) repo.startFollower(host, port, secret);
+
+        SwingUtilities.invokeLater(() -> {
+            //หน้าต่างหลัก
+            MainWindow window = new MainWindow();
+
+            //Controller เชื่อมทุกอย่าง
+            new JobFairController(repo, window);
+
+            //วัดเวลาจนหน้าต่างแรกขึ้นจอ (-Djobfair.startupReport=true)
+            window.addWindowListener(new WindowAdapter() {
+                @Override public void windowOpened(WindowEvent e) {
+                    report("time-to-first-frame");
+                    if (Boolean.getBoolean("jobfair.exitAfterStartup")) System.exit(0);
+                }
+
+                //ปิดหน้าต่าง: ปิด replication / ไฟล์โหมด remote / event log ก่อน JVM จบ
+                @Override public void windowClosing(WindowEvent e) {
+                    try {
+                        repo.close();
+                    } catch (IOException ex) {
+                        System.err.println("close: " + ex.getMessage());
+                    }
+                }
+            });
+
+            //แสดง UI
+            window.showUI();
+        });
+    }
+
+    // พิมพ์เวลาตั้งแต่ JVM เริ่มทำงาน (รูปแบบ "startup <ชื่อ> <ms>" ให้ StartupBenchmark อ่านได้)
+    private static void report(String what) {
+        if (!Boolean.getBoolean("jobfair.startupReport")) return;
+        Instant start = ProcessHandle.current().info().startInstant().orElse(Instant.now());
+        System.out.println("startup " + what + " " + Duration.between(start, Instant.now()).toMillis());
+    }
+}
@@ -0,0 +1,65 @@
+package app;
+
+import controller.ApplyAdmission;
+import model.*;
+import tools.DatabaseCopy;
+import view.AdminView;
+import view.ApplyView;
+import view.DashboardView;
+import view.JobsView;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * TrainingRun: เดิน flow หลักของโปรแกรมแบบไม่เปิดหน้าต่าง เพื่อให้ JVM โหลดคลาสที่ใช้ตอนเริ่มโปรแกรม
+ * ใช้คู่กับ -XX:ArchiveClassesAtExit=... เพื่อสร้าง CDS archive (ดู profile "cds" ใน pom.xml)
+ *
+ * - ทำงานบนสำเนาของโฟลเดอร์ database ในโฟลเดอร์ชั่วคราว (ไม่แตะข้อมูลจริง)
+ * - login (student) → ดูงาน → สมัคร → login (admin) → ดูรายการ/Dashboard
+ */
+final class TrainingRun {
+
+    private TrainingRun() {}
+
+    static void run(String dbDir) throws IOException {
+        Path tmp = DatabaseCopy.toTemp(Paths.get(dbDir), "jobfair-train");
+        try (Repository repo = new Repository(tmp.toString())) {
+            // login: หา student คนแรกที่มีในระบบ
+            List<Candidate> candidates = repo.getCandidates(1);
+            if (candidates.isEmpty()) return;
+            Candidate me = candidates.get(0);
+            String email = me.email.toLowerCase();
+            repo.isValidEmail(email);
+            repo.isCandidateEmail(email);
+            repo.setCurrentUser(email, "student");
+            repo.findCandidateByEmailLower(email);
+
+            // jobs: โหลดและเรียงตารางแบบเดียวกับหน้า Jobs
+            List<Job> jobs = repo.getAllOpenJobs();
+            jobs.sort(Comparator.comparing(j -> j.title));
+            JobsView jobsView = new JobsView();
+            jobsView.setTableData(jobs, repo);
+
+            // apply: สมัครงานแรกที่มีสิทธิ์
+            ApplyView applyView = new ApplyView();
+            for (Job j : jobs) {
+                if (!repo.canApply(me, j) || !repo.reserveSlot(j)) continue;
+                applyView.showForStudent(j, me);
+                repo.appendApplication(j, me, LocalDateTime.now());
+                break;
+            }
+
+            // admin: รายการใบสมัครและ Dashboard
+            repo.isAdminEmail("admin@example.com");
+            new AdminView().setData(repo.getAllApplications(), repo);
+            new DashboardView().setData(repo, new ApplyAdmission(1, 1, 1000));
+        } finally {
+            DatabaseCopy.delete(tmp);
+        }
+    }
+}
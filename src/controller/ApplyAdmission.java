@@ -0,0 +1,143 @@
+package controller;
+
+import model.QueueMetrics;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ApplyAdmission: ด่านควบคุมการรับคำขอสมัครงานก่อนถึง Repository.appendApplication
+ *
+ * - คำขอ (งาน, ผู้สมัคร) เดิมที่ยังรอเขียนอยู่ในคิว → DUPLICATE ทันที (ไม่เข้าคิวซ้ำ ไม่เสีย token)
+ * - token bucket ต่อผู้สมัคร: กดยืนยันรัว ๆ เกิน burst จะถูก THROTTLED
+ * - คิวมีขนาดจำกัด + writer thread เดียว: เขียนดิสก์ทีละรายการตามลำดับ ไม่แย่งกันเขียน
+ * - คิวเต็ม → SHED (ปฏิเสธทันที) พร้อมบอกเวลาที่ควรลองใหม่ แทนที่จะให้ทุกคนรอนานไม่จำกัด
+ * - มีตัวนับ (metrics) สำหรับความยาวคิวและจำนวนที่ถูกปฏิเสธ (แสดงใน DashboardView)
+ *
+ * อยู่ฝั่ง controller: เป็นด่านก่อนเรียก Model ไม่ใช่ส่วนของข้อมูล
+ */
+public class ApplyAdmission implements QueueMetrics {
+
+    public enum Outcome { ACCEPTED, DUPLICATE, THROTTLED, SHED }
+
+    /** งานเขียนที่ต้องทำเมื่อผ่านด่าน (เช่น repo.appendApplication(...)) */
+    public interface ApplyTask { void run() throws Exception; }
+
+    /** ผลการยื่นคำขอ: ถ้า ACCEPTED ให้รอ done, ถ้าไม่ใช่ให้ลองใหม่หลัง retryAfterMillis */
+    public static class Ticket {
+        public final Outcome outcome;
+        public final long retryAfterMillis;
+        public final CompletableFuture<Void> done;
+        Ticket(Outcome outcome, long retryAfterMillis, CompletableFuture<Void> done) {
+            this.outcome = outcome;
+            this.retryAfterMillis = retryAfterMillis;
+            this.done = done;
+        }
+    }
+
+    // token bucket แบบง่าย: เติม 1 token ทุก refillMillis สูงสุด burst
+    private static class TokenBucket {
+        private double tokens;
+        private long last;
+        TokenBucket(int burst, long now) { tokens = burst; last = now; }
+
+        // คืน 0 ถ้าได้ token, ไม่งั้นคืนเวลา (ms) ที่ต้องรอจนได้ token ถัดไป
+        synchronized long tryTake(int burst, long refillMillis, long now) {
+            tokens = Math.min(burst, tokens + (double) (now - last) / refillMillis);
+            last = now;
+            if (tokens >= 1) { tokens -= 1; return 0; }
+            return (long) Math.ceil((1 - tokens) * refillMillis);
+        }
+
+        synchronized boolean isFull(int burst, long refillMillis, long now) {
+            return tokens + (double) (now - last) / refillMillis >= burst;
+        }
+    }
+
+    // เกินจำนวนนี้จะล้าง bucket ที่เต็มแล้ว (ผู้สมัครที่ไม่ได้กดมานาน) ออกจาก map
+    private static final int MAX_IDLE_BUCKETS = 10_000;
+
+    private final int burst;
+    private final long refillMillis;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor writer;
+    // "jobId|candidateId" ที่รับเข้าคิวแล้วแต่ยังเขียนไม่เสร็จ
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong avgServiceNanos = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(5));
+
+    /**
+     * @param queueCapacity จำนวนคำขอที่รอเขียนได้พร้อมกันสูงสุด
+     * @param burst         จำนวนครั้งที่ผู้สมัครหนึ่งคนกดติดกันได้
+     * @param refillMillis  เวลาที่ใช้เติม token คืน 1 อัน
+     */
+    public ApplyAdmission(int queueCapacity, int burst, long refillMillis) {
+        this.burst = burst;
+        this.refillMillis = refillMillis;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "apply-writer");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** ยื่นคำขอสมัครงาน jobId ของผู้สมัคร candidateId */
+    public Ticket submit(String jobId, String candidateId, ApplyTask task) {
+        // คำขอเดิมยังอยู่ในคิว → ตอบ DUPLICATE โดยไม่แตะ token bucket และคิว
+        String key = jobId + "|" + candidateId;
+        if (!inFlight.add(key)) {
+            duplicates.incrementAndGet();
+            return new Ticket(Outcome.DUPLICATE, 0, null);
+        }
+
+        long now = System.currentTimeMillis();
+        if (buckets.size() > MAX_IDLE_BUCKETS) {
+            buckets.values().removeIf(b -> b.isFull(burst, refillMillis, now));
+        }
+        long wait = buckets.computeIfAbsent(candidateId, k -> new TokenBucket(burst, now))
+                .tryTake(burst, refillMillis, now);
+        if (wait > 0) {
+            inFlight.remove(key);
+            throttled.incrementAndGet();
+            return new Ticket(Outcome.THROTTLED, wait, null);
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            writer.execute(() -> {
+                long t0 = System.nanoTime();
+                try {
+                    task.run();
+                    done.complete(null);
+                } catch (Throwable ex) {
+                    done.completeExceptionally(ex);
+                } finally {
+                    inFlight.remove(key);
+                    // ค่าเฉลี่ยเคลื่อนที่ของเวลาเขียน 1 รายการ (ใช้ประมาณเวลาให้ลองใหม่)
+                    long took = System.nanoTime() - t0;
+                    avgServiceNanos.updateAndGet(avg -> avg - avg / 8 + took / 8);
+                }
+            });
+        } catch (RejectedExecutionException full) {
+            inFlight.remove(key);
+            shed.incrementAndGet();
+            long drain = TimeUnit.NANOSECONDS.toMillis(avgServiceNanos.get() * writer.getQueue().size());
+            return new Ticket(Outcome.SHED, Math.max(500, drain), null);
+        }
+        accepted.incrementAndGet();
+        return new Ticket(Outcome.ACCEPTED, 0, done);
+    }
+
+    // ===== metrics =====
+    @Override public int queueDepth()    { return writer.getQueue().size(); }
+    @Override public long accepted()     { return accepted.get(); }
+    @Override public long duplicates()   { return duplicates.get(); }
+    @Override public long throttled()    { return throttled.get(); }
+    @Override public long shed()         { return shed.get(); }
+}
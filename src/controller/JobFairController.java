@@ -26,6 +26,12 @@ public class JobFairController {
     // อ้างอิง View หลัก (มี 4 หน้า: Login / Jobs / Apply / Admin)
     private final MainWindow window;
 
+    // ด่านควบคุมการสมัคร: คิวจำกัด 64 รายการ, ผู้สมัคร 1 คนกดได้ 3 ครั้งติด แล้วเติมคืน 1 ครั้งทุก 5 วินาที
+    private final ApplyAdmission admission = new ApplyAdmission(64, 3, 5000);
+
+    // จำนวนงานแนะนำสูงสุดที่ดันขึ้นหัวตารางเมื่อเรียงแบบ RECOMMENDED
+    private static final int RECOMMEND_TOP_K = 10;
+
     /**
      * ส่วนสร้าง Controller:
      *  - รับ Repository และ MainWindow 
@@ -151,24 +157,50 @@ public class JobFairController {
                 return;
             }
 
-            try {
-                // บันทึกการสมัคร:
-                //  - append ลง applications.csv
-                //  - เก็บเวลาเครื่อง LocalDateTime.now()
-                repo.appendApplication(job, cand, LocalDateTime.now());
+            // ตรวจจำนวนรับ: จองที่นั่ง 1 ที่ (atomic) ก่อนส่งเข้าคิว
+            if (!repo.reserveSlot(job)) {
+                JOptionPaneUtil.error(window, "This job has reached its application limit.");
+                return;
+            }
 
+            // บันทึกการสมัครผ่าน ApplyAdmission:
+            //  - append ลง applications.csv บน writer thread (ทีละรายการตามลำดับ)
+            //  - เก็บเวลาเครื่อง LocalDateTime.now() ตอนกดยืนยัน
+            LocalDateTime when = LocalDateTime.now();
+            ApplyAdmission.Ticket ticket = admission.submit(job.id, cand.id, () -> repo.appendApplication(job, cand, when));
+            if (ticket.outcome == ApplyAdmission.Outcome.DUPLICATE) {
+                // คำขอเดิมของงานนี้ยังรอเขียนอยู่ → ไม่จองที่นั่งซ้ำ
+                repo.releaseSlot(job);
+                JOptionPaneUtil.error(window, "Your application for this job is already being saved.");
+                return;
+            }
+            if (ticket.outcome != ApplyAdmission.Outcome.ACCEPTED) {
+                repo.releaseSlot(job);
+                // ถูกจำกัดความถี่ / คิวเต็ม → บอกให้ลองใหม่ภายหลัง (ยังอยู่หน้า Apply)
+                long secs = Math.max(1, (ticket.retryAfterMillis + 999) / 1000);
+                JOptionPaneUtil.error(window, (ticket.outcome == ApplyAdmission.Outcome.THROTTLED
+                        ? "Too many apply attempts." : "The system is busy.")
+                        + " Please retry in " + secs + " second(s).");
+                return;
+            }
+
+            // เมื่อเขียนเสร็จ (บน writer thread) กลับมาแจ้งผลบน EDT
+            ticket.done.whenComplete((ok, ex) -> javax.swing.SwingUtilities.invokeLater(() -> {
+                if (ex != null) {
+                    // กรณีเขียนไฟล์ล้มเหลว → คืนที่นั่งที่จองไว้
+                    repo.releaseSlot(job);
+                    Throwable cause = ex instanceof java.util.concurrent.CompletionException ? ex.getCause() : ex;
+                    JOptionPaneUtil.error(window, "Failed to save application: " + cause.getMessage());
+                    return;
+                }
                 // แจ้งผลสำเร็จ
                 JOptionPaneUtil.info(window, "Applied successfully.\nCandidate: " + cand.fullName()
                         + "\nJob: " + job.title);
-            } catch (Exception ex) {
-                // กรณีเขียนไฟล์ล้มเหลว
-                JOptionPaneUtil.error(window, "Failed to save application: " + ex.getMessage());
-                return;
-            }
 
-            //กลับไปหน้า Jobs และรีเฟรชตารางด้วย sort ปัจจุบัน
-            window.showJobs();
-            refreshJobs(window.jobsView.getSortKey());
+                //กลับไปหน้า Jobs และรีเฟรชตารางด้วย sort ปัจจุบัน
+                window.showJobs();
+                refreshJobs(window.jobsView.getSortKey());
+            }));
         }, () -> window.showJobs());
 
         // ====== Admin: Save grade ======
@@ -199,6 +231,88 @@ public class JobFairController {
             }
         });
 
+        // ====== Admin: Dashboard ======
+        // เปิดหน้าสรุปจากตัวนับใน Repository (ไม่ต้องไล่ใบสมัครทั้งหมด)
+        window.adminView.setDashboardHandler(() -> {
+            window.dashboardView.setData(repo, admission);
+            window.showDashboard();
+        });
+        window.dashboardView.setBackHandler(() -> window.showAdmin());
+
+        // ====== Admin: Export ======
+        // เลือกบริษัท (หรือทั้งหมด) → เลือกไฟล์ → ส่งออกแบบ stream
+        //  - นามสกุล .json/.jsonl = JSON Lines, อื่น ๆ = CSV, ลงท้าย .gz = บีบอัด gzip
+        window.adminView.setExportHandler(() -> {
+            List<Company> companies = repo.getAllCompanies();
+            companies.sort(Comparator.comparing(c -> c.name));
+            Object[] choices = new Object[companies.size() + 1];
+            choices[0] = "(All companies)";
+            for (int i = 0; i < companies.size(); i++) {
+                choices[i + 1] = companies.get(i).name + " (" + companies.get(i).id + ")";
+            }
+            Object picked = javax.swing.JOptionPane.showInputDialog(window, "Export applications of:", "Export",
+                    javax.swing.JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+            if (picked == null) return;
+
+            ApplicationExport.Filter filter = new ApplicationExport.Filter();
+            for (int i = 0; i < companies.size(); i++) {
+                if (picked == choices[i + 1]) filter.companyId = companies.get(i).id;
+            }
+
+            javax.swing.JFileChooser fc = new javax.swing.JFileChooser();
+            fc.setSelectedFile(new java.io.File("applications.csv"));
+            if (fc.showSaveDialog(window) != javax.swing.JFileChooser.APPROVE_OPTION) return;
+            java.nio.file.Path file = fc.getSelectedFile().toPath();
+            exportInBackground(filter, file);
+        });
+
+        // ====== Admin: ประวัติ ======
+        //  - Grade history: เหตุการณ์ทั้งหมดของใบสมัครที่เลือก (ใครเปลี่ยนเกรดเมื่อไร)
+        //  - As of: สถานะใบสมัครทั้งหมด ณ วันเวลาที่ระบุ
+        window.adminView.setHistoryHandlers(rowIndex -> {
+            String candId = window.adminView.getCandidateIdAtRow(rowIndex);
+            String jobId  = window.adminView.getJobIdAtRow(rowIndex);
+            try {
+                window.adminView.showEventsDialog("History: job " + jobId + " / candidate " + candId,
+                        repo.getHistory().eventsFor(jobId, candId));
+            } catch (Exception ex) {
+                JOptionPaneUtil.error(window, "Failed to read history: " + ex.getMessage());
+            }
+        }, when -> {
+            LocalDateTime t;
+            try {
+                // รับได้ทั้งวันที่อย่างเดียว (= สิ้นวันนั้น) หรือวันเวลา
+                t = when.contains("T") ? LocalDateTime.parse(when)
+                        : LocalDate.parse(when).plusDays(1).atStartOfDay().minusNanos(1);
+            } catch (Exception ex) {
+                JOptionPaneUtil.error(window, "Invalid date/time: " + when);
+                return;
+            }
+            try {
+                window.adminView.showApplicationsDialog("Applications as of " + t,
+                        repo.getHistory().asOf(t), repo);
+            } catch (Exception ex) {
+                JOptionPaneUtil.error(window, "Failed to read history: " + ex.getMessage());
+            }
+        });
+
+        // ====== คลังใบสมัครเก่า (Archive) ======
+        window.adminView.setArchiveHandlers(() -> {
+            try {
+                int n = repo.archiveClosedJobs(LocalDate.now());
+                JOptionPaneUtil.info(window, n == 0 ? "No applications to archive." : "Archived " + n + " applications.");
+                window.adminView.setData(repo.getAllApplications(), repo);
+            } catch (Exception ex) {
+                JOptionPaneUtil.error(window, "Failed to archive: " + ex.getMessage());
+            }
+        }, () -> {
+            try {
+                window.adminView.showApplicationsDialog("Archived applications", repo.getArchivedApplications(), repo);
+            } catch (Exception ex) {
+                JOptionPaneUtil.error(window, "Failed to read archive: " + ex.getMessage());
+            }
+        });
+
         // ====== หน้าเริ่มต้น ======
         window.showLogin();
     }
@@ -207,37 +321,109 @@ public class JobFairController {
      * refreshJobs:
      *  - ดึงรายการงานที่ open=true
      *  - กรองงานที่ deadline หมดอายุ (ก่อนวันนี้) ออก
-     *  - จัดเรียงตามคีย์ที่ผู้ใช้เลือก (BY_TITLE / BY_COMPANY / BY_DEADLINE)
+     *  - จัดเรียงตามคีย์ที่ผู้ใช้เลือก (BY_TITLE / BY_COMPANY / BY_DEADLINE / RECOMMENDED)
      *  - ส่งผลลัพธ์ให้ JobsView แสดงในตาราง
      */
     private void refreshJobs(String sortKey) {
-        // ดึงงานที่เปิดอยู่ทั้งหมด (ยังไม่กรอง deadline)
-        List<Job> jobs = repo.getAllOpenJobs();
-
-        // กรองงานที่หมดเขตแล้ว: ถ้ามี deadline และ < วันนี้ ให้ตัดออก
-        LocalDate today = LocalDate.now();
-        jobs.removeIf(j -> j.deadline != null && j.deadline.isBefore(today));
-
-        // จัดเรียงตามตัวเลือก
-        switch (sortKey) {
-            case "BY_COMPANY":
-                // เรียงตามชื่อบริษัท 
-                jobs.sort(Comparator.comparing(j -> {
-                    Company c = repo.findCompany(j.companyId);
-                    return c == null ? "" : c.name;
-                }));
-                break;
-            case "BY_DEADLINE":
-                // เรียงตามวันหมดเขต 
-                jobs.sort(Comparator.comparing(j -> j.deadline));
-                break;
-            default:
-                // ค่าdefault: เรียงตามชื่อตำแหน่งงาน
-                jobs.sort(Comparator.comparing(j -> j.title));
-        }
+        // event JFR + allocation audit (ดู model.Profiling)
+        Profiling.time(new Profiling.JobRefresh(), "job-refresh", ev -> {
+            ev.sortKey = sortKey;
+            // ดึงงานที่เปิดอยู่ทั้งหมด (ยังไม่กรอง deadline)
+            List<Job> jobs = repo.getAllOpenJobs();
+
+            // กรองงานที่หมดเขตแล้ว: ถ้ามี deadline และ < วันนี้ ให้ตัดออก
+            LocalDate today = LocalDate.now();
+            jobs.removeIf(j -> j.deadline != null && j.deadline.isBefore(today));
+
+            // จัดเรียงตามตัวเลือก
+            switch (sortKey) {
+                case "BY_COMPANY":
+                    // เรียงตามชื่อบริษัท 
+                    jobs.sort(Comparator.comparing(j -> {
+                        Company c = repo.findCompany(j.companyId);
+                        return c == null ? "" : c.name;
+                    }));
+                    break;
+                case "BY_DEADLINE":
+                    // เรียงตามวันหมดเขต 
+                    jobs.sort(Comparator.comparing(j -> j.deadline));
+                    break;
+                case "RECOMMENDED":
+                    // งานแนะนำ (สูงสุด RECOMMEND_TOP_K) ขึ้นก่อน ที่เหลือเรียงตามชื่อ
+                    // ยังไม่มีประวัติการสมัคร / ไม่ใช่ student → เรียงตามชื่ออย่างเดียว
+                    jobs.sort(Comparator.comparing(j -> j.title));
+                    Repository.Session s = repo.getCurrentSession();
+                    Candidate me = (s != null && "student".equalsIgnoreCase(s.role)) ? repo.findCandidateByEmailLower(s.email) : null;
+                    if (me != null) {
+                        List<Job> top = repo.recommendJobs(me, jobs, RECOMMEND_TOP_K);
+                        jobs.removeAll(top);
+                        jobs.addAll(0, top);
+                    }
+                    break;
+                default:
+                    // ค่าdefault: เรียงตามชื่อตำแหน่งงาน
+                    jobs.sort(Comparator.comparing(j -> j.title));
+            }
 
-        // ส่งข้อมูลให้ View แสดงผล
-        window.jobsView.setTableData(jobs, repo);
+            // ส่งข้อมูลให้ View แสดงผล
+            window.jobsView.setTableData(jobs, repo);
+            ev.rows = jobs.size();
+        });
+    }
+
+    /**
+     * exportInBackground:
+     *  - ส่งออกใบสมัครบน SwingWorker (ไม่ค้าง EDT) พร้อม ProgressMonitor แสดงจำนวนแถว
+     *  - กด Cancel → หยุดที่รายงานความคืบหน้าครั้งถัดไป แล้วลบไฟล์ที่เขียนค้างไว้
+     */
+    private void exportInBackground(ApplicationExport.Filter filter, java.nio.file.Path file) {
+        // ความคืบหน้าคิดจากจำนวนใบสมัครที่ไล่ผ่าน เทียบกับจำนวนใบสมัครทั้งหมด
+        long total = Math.max(1, repo.getStats().total());
+        javax.swing.ProgressMonitor monitor = new javax.swing.ProgressMonitor(window,
+                "Exporting applications to " + file.getFileName(), "", 0, (int) Math.min(Integer.MAX_VALUE, total));
+        monitor.setMillisToDecideToPopup(200);
+
+        new javax.swing.SwingWorker<Long, long[]>() {
+            @Override protected Long doInBackground() throws Exception {
+                long n;
+                try (java.io.OutputStream os = ApplicationExport.open(file)) {
+                    n = repo.exportApplications(filter, ApplicationExport.formatFor(file), os, (written, scanned) -> {
+                        if (isCancelled()) throw new java.io.InterruptedIOException("Export cancelled");
+                        publish(new long[]{ written, scanned });
+                    });
+                } catch (java.io.IOException ex) {
+                    if (isCancelled()) java.nio.file.Files.deleteIfExists(file);
+                    throw ex;
+                }
+                if (isCancelled()) java.nio.file.Files.deleteIfExists(file);
+                return n;
+            }
+
+            @Override protected void process(List<long[]> chunks) {
+                long[] last = chunks.get(chunks.size() - 1);
+                if (monitor.isCanceled()) {
+                    cancel(false);
+                    return;
+                }
+                monitor.setProgress((int) Math.min(Integer.MAX_VALUE, last[1]));
+                monitor.setNote(last[0] + " rows written");
+            }
+
+            @Override protected void done() {
+                monitor.close();
+                if (isCancelled()) {
+                    JOptionPaneUtil.info(window, "Export cancelled.");
+                    return;
+                }
+                try {
+                    JOptionPaneUtil.info(window, "Exported " + get() + " rows to " + file.getFileName());
+                } catch (java.util.concurrent.ExecutionException ex) {
+                    JOptionPaneUtil.error(window, "Failed to export: " + ex.getCause().getMessage());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
     }
 
     /**
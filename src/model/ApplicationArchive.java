@@ -0,0 +1,253 @@
+package model;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ApplicationArchive: คลังใบสมัครเก่า (งานปิดแล้วและเลย deadline) แบบอ่านอย่างเดียว
+ *
+ * - ทุกครั้งที่ archive จะเขียน segment ใหม่ 1 ไฟล์: archive/segment-<ลำดับ>.bin.gz (ไม่แก้ไฟล์เดิมอีก)
+ *   แบบสองขั้น: prepare() เขียน .tmp → (Repository ตัดใบสมัครออกจากไฟล์หลัก) → commit() เปลี่ยนชื่อเป็น segment
+ *   ถ้าโปรแกรมหยุดกลางทาง recover() ตอนเปิดครั้งถัดไปจะตัดสินจากไฟล์หลักว่าจะทิ้ง .tmp ที่ค้าง
+ *   หรือตัดใบสมัครที่เหลือให้จบแล้ว commit
+ * - ไม่โหลดตอนเริ่มโปรแกรม: อ่านทุก segment ครั้งแรกที่แอดมินเปิดดูคลัง แล้วเก็บไว้ในหน่วยความจำ
+ *
+ * รูปแบบ segment (DataOutputStream ใน gzip):
+ *   int MAGIC, byte VERSION, int จำนวนงาน
+ *   ต่องาน: UTF jobId, int จำนวนแถว, byte โหมด candidateId (0 = ตัวเลข เก็บผลต่าง, 1 = ข้อความ)
+ *   ต่อแถว (เรียงตามเวลาสมัคร):
+ *     candidateId  : varlong zigzag ของผลต่างจากแถวก่อน (โหมด 0) หรือ UTF (โหมด 1)
+ *     appliedAt    : varlong ผลต่างวินาทีจากแถวก่อน (+1, 0 = ไม่มีเวลา) แล้วตามด้วย varint นาโนวินาที
+ *     grade        : byte index ใน ApplicationStats.GRADES
+ */
+class ApplicationArchive {
+
+    private static final int MAGIC = 0x4A464152; // "JFAR"
+    private static final byte VERSION = 1;
+
+    private final Path dir;
+    private List<Application> loaded; // null = ยังไม่โหลด
+
+    ApplicationArchive(Path dir) {
+        this.dir = dir;
+    }
+
+    /** ใบสมัครทั้งหมดในคลัง (โหลดจากดิสก์ครั้งแรกที่เรียก) */
+    synchronized List<Application> all() throws IOException {
+        if (loaded == null) {
+            List<Application> out = new ArrayList<>();
+            for (Path p : segments()) out.addAll(read(p));
+            loaded = out;
+        }
+        return new ArrayList<>(loaded);
+    }
+
+    /** segment ที่เขียนลง .tmp แล้ว รอ commit (เปลี่ยนชื่อ) หรือ abort (ลบ) */
+    static final class Pending {
+        final Path tmp;
+        final Path target;
+        final List<Application> rows;
+        Pending(Path tmp, Path target, List<Application> rows) {
+            this.tmp = tmp;
+            this.target = target;
+            this.rows = rows;
+        }
+    }
+
+    /** ขั้นที่ 1: เขียน segment ใหม่ลงไฟล์ชั่วคราว (ยังไม่ถือว่าอยู่ในคลัง) */
+    synchronized Pending prepare(List<Application> rows) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> existing = segments();
+        int next = existing.isEmpty() ? 1 : seqOf(existing.get(existing.size() - 1)) + 1;
+        Path target = dir.resolve(String.format("segment-%06d.bin.gz", next));
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try {
+            writeSegment(tmp, rows);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return new Pending(tmp, target, new ArrayList<>(rows));
+    }
+
+    /** ขั้นที่ 2: เปลี่ยนชื่อ .tmp เป็น segment (หลังตัดใบสมัครออกจากไฟล์หลักสำเร็จแล้ว) */
+    synchronized void commit(Pending p) throws IOException {
+        Files.move(p.tmp, p.target, StandardCopyOption.ATOMIC_MOVE);
+        if (loaded != null) loaded.addAll(p.rows);
+    }
+
+    /** ยกเลิก: ลบ .tmp (ไฟล์หลักยังมีใบสมัครครบ) */
+    synchronized void abort(Pending p) throws IOException {
+        Files.deleteIfExists(p.tmp);
+    }
+
+    /** ตัดใบสมัครของงานเหล่านี้ออกจากไฟล์หลัก (Repository ส่ง ApplicationStore::removeJobs มา) */
+    interface Remover {
+        void removeJobs(Set<String> jobIds) throws IOException;
+    }
+
+    /**
+     * ตอนเปิดโปรแกรม: จัดการ segment .tmp ที่ค้างจากการ archive ที่ไม่จบ
+     * - ใบสมัครใน .tmp ยังอยู่ในไฟล์หลักครบทุกใบ (stillLive) → ยังไม่ได้ตัดออกเลย → ลบ .tmp
+     * - ไม่อยู่แล้วสักใบ → ไฟล์หลักถูกเขียนใหม่แล้ว → commit
+     * - อยู่บางใบ (โหมด shard เขียนใหม่ไปได้บาง shard) → ตัดงานใน segment ที่เหลือออกให้จบก่อน แล้วค่อย commit
+     *   (หยุดอีกระหว่างตัด → ครั้งถัดไปก็ยังเป็นกรณีนี้หรือกรณีก่อนหน้า ใบสมัครไม่หายจากทั้งสองที่)
+     * คืนใบสมัครที่ถูก commit ในขั้นนี้
+     */
+    synchronized List<Application> recover(Predicate<Application> stillLive, Remover finish) throws IOException {
+        List<Application> committed = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return committed;
+        List<Path> stray;
+        try (Stream<Path> s = Files.list(dir)) {
+            stray = s.filter(p -> p.getFileName().toString().matches("segment-\\d+\\.bin\\.gz\\.tmp"))
+                    .sorted().collect(Collectors.toList());
+        }
+        for (Path tmp : stray) {
+            List<Application> rows;
+            try {
+                rows = read(tmp);
+            } catch (IOException e) {
+                Files.delete(tmp); // เขียนไม่เสร็จ → ไฟล์หลักยังไม่ถูกแตะ
+                continue;
+            }
+            long live = rows.stream().filter(stillLive).count();
+            if (rows.isEmpty() || live == rows.size()) {
+                Files.delete(tmp);
+                continue;
+            }
+            if (live > 0) {
+                Set<String> jobIds = new TreeSet<>();
+                for (Application a : rows) jobIds.add(a.jobId);
+                finish.removeJobs(jobIds);
+            }
+            String name = tmp.getFileName().toString();
+            commit(new Pending(tmp, tmp.resolveSibling(name.substring(0, name.length() - ".tmp".length())), rows));
+            committed.addAll(rows);
+        }
+        return committed;
+    }
+
+    private static void writeSegment(Path tmp, List<Application> rows) throws IOException {
+        // จัดกลุ่มตามงาน แล้วเรียงตามเวลาสมัครเพื่อให้ผลต่างของเวลาเล็กและเป็นบวก
+        Map<String, List<Application>> byJob = new TreeMap<>();
+        for (Application a : rows) byJob.computeIfAbsent(a.jobId, k -> new ArrayList<>()).add(a);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(byJob.size());
+            for (Map.Entry<String, List<Application>> e : byJob.entrySet()) {
+                List<Application> list = e.getValue();
+                list.sort(Comparator.comparing((Application a) -> a.appliedAt, Comparator.nullsFirst(Comparator.naturalOrder())));
+                boolean numeric = list.stream().allMatch(a -> isNumeric(a.candidateId));
+
+                out.writeUTF(e.getKey());
+                out.writeInt(list.size());
+                out.writeByte(numeric ? 0 : 1);
+                long prevId = 0, prevSec = 0;
+                for (Application a : list) {
+                    if (numeric) {
+                        long id = Long.parseLong(a.candidateId);
+                        writeVarLong(out, zigzag(id - prevId));
+                        prevId = id;
+                    } else {
+                        out.writeUTF(a.candidateId);
+                    }
+                    if (a.appliedAt == null) {
+                        writeVarLong(out, 0);
+                    } else {
+                        long sec = a.appliedAt.toEpochSecond(ZoneOffset.UTC);
+                        writeVarLong(out, zigzag(sec - prevSec) + 1);
+                        writeVarLong(out, a.appliedAt.getNano());
+                        prevSec = sec;
+                    }
+                    out.writeByte(ApplicationStats.gradeSlot(a.grade));
+                }
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        if (!Files.isDirectory(dir)) return new ArrayList<>();
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().matches("segment-\\d+\\.bin\\.gz"))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static int seqOf(Path p) {
+        String n = p.getFileName().toString();
+        return Integer.parseInt(n.substring("segment-".length(), n.indexOf('.')));
+    }
+
+    private static List<Application> read(Path p) throws IOException {
+        List<Application> out = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(p))))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) throw new IOException("Not an archive segment: " + p);
+            int jobs = in.readInt();
+            for (int j = 0; j < jobs; j++) {
+                String jobId = in.readUTF();
+                int n = in.readInt();
+                boolean numeric = in.readByte() == 0;
+                long prevId = 0, prevSec = 0;
+                for (int i = 0; i < n; i++) {
+                    String cand;
+                    if (numeric) {
+                        prevId += unzigzag(readVarLong(in));
+                        cand = Long.toString(prevId);
+                    } else {
+                        cand = in.readUTF();
+                    }
+                    LocalDateTime ts = null;
+                    long d = readVarLong(in);
+                    if (d != 0) {
+                        prevSec += unzigzag(d - 1);
+                        ts = LocalDateTime.ofEpochSecond(prevSec, (int) readVarLong(in), ZoneOffset.UTC);
+                    }
+                    out.add(new Application(jobId, cand, ts, ApplicationStats.GRADES[in.readByte()]));
+                }
+            }
+        }
+        return out;
+    }
+
+    // candidateId ที่เป็นตัวเลขล้วน และแปลงกลับเป็นข้อความเดิมได้ (ไม่มีเลข 0 นำหน้า)
+    private static boolean isNumeric(String s) {
+        if (s.isEmpty() || s.length() > 18 || (s.length() > 1 && s.charAt(0) == '0')) return false;
+        for (int i = 0; i < s.length(); i++) if (s.charAt(i) < '0' || s.charAt(i) > '9') return false;
+        return true;
+    }
+
+    // ===== varint (7 บิตต่อไบต์) + zigzag สำหรับค่าติดลบ =====
+
+    private static long zigzag(long v) { return (v << 1) ^ (v >> 63); }
+    private static long unzigzag(long v) { return (v >>> 1) ^ -(v & 1); }
+
+    private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,147 @@
+package model;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ApplicationExport: ส่งออกใบสมัคร + เกรดเป็น CSV หรือ JSON (JSON Lines)
+ *
+ * - เขียนทีละแถวลง stream ทันที ไม่สร้าง Application สำเนา (โหมด heap คัดลอกเฉพาะ reference ของแถวที่เกี่ยวข้อง)
+ * - กรองได้ตามบริษัท / งาน / เกรด / ช่วงเวลาสมัคร (Filter)
+ * - เลือก gzip ได้ และรายงานความคืบหน้าผ่าน ProgressListener ทุก ๆ PROGRESS_EVERY แถวที่ไล่ผ่าน
+ */
+public class ApplicationExport {
+
+    public enum Format { CSV, JSON }
+
+    /**
+     * callback รายงานจำนวนแถวที่เขียนไปแล้ว และจำนวนใบสมัครที่ไล่ผ่านแล้ว (รวมแถวที่ไม่ผ่าน filter)
+     * - เรียกบน thread ที่ส่งออก; โยน IOException (เช่น InterruptedIOException) เพื่อยกเลิกการส่งออกได้
+     */
+    public interface ProgressListener { void progress(long rowsWritten, long rowsScanned) throws IOException; }
+
+    // รายงานความคืบหน้าทุก ๆ กี่แถว (นับตามแถวที่ไล่ผ่าน)
+    public static final int PROGRESS_EVERY = 10_000;
+
+    /** เงื่อนไขการกรอง (ช่องที่เป็น null = ไม่กรอง) */
+    public static class Filter {
+        public String companyId;
+        public String jobId;
+        public String grade;          // "" = เฉพาะที่ยังไม่ให้เกรด
+        public LocalDateTime from;    // รวมขอบล่าง
+        public LocalDateTime to;      // ไม่รวมขอบบน
+
+        boolean matches(Application a, Job job) {
+            if (jobId != null && !jobId.equals(a.jobId)) return false;
+            if (companyId != null && (job == null || !companyId.equals(job.companyId))) return false;
+            if (grade != null && !grade.equals(a.grade)) return false;
+            if (from != null && (a.appliedAt == null || a.appliedAt.isBefore(from))) return false;
+            if (to != null && (a.appliedAt == null || !a.appliedAt.isBefore(to))) return false;
+            return true;
+        }
+    }
+
+    private final Repository repo;
+    private final Filter filter;
+    private final Format format;
+    private final ProgressListener listener;
+    private Writer out;
+    private long rows;
+    private long scanned;
+
+    ApplicationExport(Repository repo, Filter filter, Format format, ProgressListener listener) {
+        this.repo = repo;
+        this.filter = filter == null ? new Filter() : filter;
+        this.format = format;
+        this.listener = listener;
+    }
+
+    /** เลือกรูปแบบจากนามสกุลไฟล์ (.json / .jsonl → JSON, อื่น ๆ → CSV) ไม่สนใจ .gz ท้ายชื่อ */
+    public static Format formatFor(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+        return (name.endsWith(".json") || name.endsWith(".jsonl")) ? Format.JSON : Format.CSV;
+    }
+
+    /** เปิดไฟล์ปลายทาง (บีบอัด gzip ถ้าชื่อไฟล์ลงท้ายด้วย .gz) */
+    public static OutputStream open(Path file) throws IOException {
+        OutputStream os = new BufferedOutputStream(Files.newOutputStream(file));
+        return file.getFileName().toString().toLowerCase().endsWith(".gz") ? new GZIPOutputStream(os, 64 * 1024) : os;
+    }
+
+    // ===== ส่วนที่ Repository เรียกระหว่างไล่ใบสมัคร =====
+
+    void begin(OutputStream os) throws IOException {
+        out = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            out.write("job_id,job_title,company_id,company_name,candidate_id,candidate_name,candidate_email,applied_at,grade\n");
+        }
+    }
+
+    void accept(Application a) throws IOException {
+        scanned++;
+        if (listener != null && scanned % PROGRESS_EVERY == 0) listener.progress(rows, scanned);
+        Job job = repo.findJob(a.jobId);
+        if (!filter.matches(a, job)) return;
+        Company comp = job == null ? null : repo.findCompany(job.companyId);
+        Candidate cand = repo.findCandidate(a.candidateId);
+        String[] v = {
+                a.jobId, job == null ? "" : job.title,
+                job == null ? "" : job.companyId, comp == null ? "" : comp.name,
+                a.candidateId, cand == null ? "" : cand.fullName(), cand == null ? "" : cand.email,
+                a.appliedAt == null ? "" : a.appliedAt.toString(), a.grade
+        };
+        if (format == Format.CSV) writeCsv(v); else writeJson(v);
+        rows++;
+    }
+
+    long finish() throws IOException {
+        out.flush();
+        if (listener != null) listener.progress(rows, scanned);
+        return rows;
+    }
+
+    private static final String[] JSON_KEYS = {
+            "jobId", "jobTitle", "companyId", "companyName",
+            "candidateId", "candidateName", "candidateEmail", "appliedAt", "grade"
+    };
+
+    // CSV: ใส่ "" ครอบเฉพาะค่าที่มีคอมม่า/เครื่องหมายคำพูด/ขึ้นบรรทัดใหม่ (\n หรือ \r)
+    private void writeCsv(String[] v) throws IOException {
+        for (int i = 0; i < v.length; i++) {
+            if (i > 0) out.write(',');
+            String s = v[i];
+            if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(s.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(s);
+            }
+        }
+        out.write('\n');
+    }
+
+    // JSON Lines: 1 object ต่อบรรทัด เพื่อให้ฝั่งผู้รับอ่านแบบ stream ได้เช่นกัน
+    private void writeJson(String[] v) throws IOException {
+        out.write('{');
+        for (int i = 0; i < v.length; i++) {
+            if (i > 0) out.write(',');
+            out.write('"');
+            out.write(JSON_KEYS[i]);
+            out.write("\":\"");
+            for (int k = 0; k < v[i].length(); k++) {
+                char ch = v[i].charAt(k);
+                if (ch == '"' || ch == '\\') { out.write('\\'); out.write(ch); }
+                else if (ch < 0x20) out.write(String.format("\\u%04x", (int) ch));
+                else out.write(ch);
+            }
+            out.write('"');
+        }
+        out.write("}\n");
+    }
+}
@@ -0,0 +1,354 @@
+package model;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * ApplicationHistory: ประวัติการสมัคร/ให้เกรดแบบ append-only (event sourcing)
+ *
+ * - ทุกการเปลี่ยนแปลงถูกต่อท้าย history/events.log (ไม่แก้ไขย้อนหลัง):
+ *     seq,at,type,job_id,candidate_id,applied_at,grade,actor
+ * - ทุก ๆ SNAPSHOT_EVERY เหตุการณ์ จะเขียน snapshot ไว้ที่ history/snapshot-<seq>.csv
+ *   (บรรทัดแรกเก็บ seq, เวลา และตำแหน่ง byte ใน events.log ณ ตอนนั้น)
+ *   snapshot สร้างบน thread พื้นหลังแบบต่อยอด: snapshot ก่อนหน้า + replay เหตุการณ์ใน log จนถึง seq นั้น
+ *   → record() ไม่ต้องรอเขียนไฟล์ และไม่ต้องอ่านสถานะของ Repository ภายใต้ล็อก
+ *   เก็บไว้เพียง KEEP_SNAPSHOTS ไฟล์ล่าสุด (เก่ากว่านั้นยัง asOf ได้ แต่ต้อง replay จากต้น log)
+ * - สถานะปัจจุบันยังอ่านจาก Repository ตามเดิม (O(1)) ประวัติไม่อยู่บน hot path
+ * - asOf(t): โหลด snapshot ล่าสุดที่ไม่เกิน t แล้ว replay เฉพาะเหตุการณ์หลัง snapshot นั้นที่เกิดไม่เกิน t
+ *   (เวลาใน log ไม่จำเป็นต้องเรียง เช่น ตอน import ใช้เวลาสมัครตามลำดับในไฟล์ จึงไล่จนถึงท้าย log เสมอ)
+ * - คิวรี (asOf / eventsFor) ถือล็อกแค่ตอน flush และจดตำแหน่งท้าย log + snapshot ที่ใช้
+ *   การอ่านไฟล์ทำนอกล็อก → record() ที่ถูกเรียกภายใต้ล็อกของ Repository ไม่ต้องรอคิวรีของแอดมิน
+ * - เปิดไฟล์ที่บรรทัดสุดท้ายเขียนไม่จบ (โปรแกรมหยุดระหว่าง append) → ตัดส่วนนั้นทิ้งก่อนเขียนต่อ
+ */
+public class ApplicationHistory implements Closeable {
+
+    public enum EventType { APPLIED, GRADED, ARCHIVED }
+
+    /** เหตุการณ์ 1 รายการใน log */
+    public static class Event {
+        public final long seq;
+        public final LocalDateTime at;
+        public final EventType type;
+        public final String jobId;
+        public final String candidateId;
+        public final LocalDateTime appliedAt;
+        public final String grade;
+        public final String actor;
+
+        Event(long seq, LocalDateTime at, EventType type, String jobId, String candidateId,
+              LocalDateTime appliedAt, String grade, String actor) {
+            this.seq = seq;
+            this.at = at;
+            this.type = type;
+            this.jobId = jobId;
+            this.candidateId = candidateId;
+            this.appliedAt = appliedAt;
+            this.grade = grade == null ? "" : grade;
+            this.actor = actor;
+        }
+
+        String toLine() {
+            return seq + "," + at + "," + type + "," + jobId + "," + candidateId + ","
+                    + (appliedAt == null ? "" : appliedAt) + "," + grade + "," + actor;
+        }
+
+        static Event parse(String line) {
+            String[] p = line.split(",", -1);
+            return new Event(Long.parseLong(p[0]), LocalDateTime.parse(p[1]), EventType.valueOf(p[2]), p[3], p[4],
+                    p[5].isBlank() ? null : LocalDateTime.parse(p[5]), p[6], p[7]);
+        }
+    }
+
+    // ข้อมูลหัวของ snapshot แต่ละไฟล์
+    private static class Snapshot {
+        final long seq;
+        final LocalDateTime at;
+        final long logOffset;
+        final Path file;
+        Snapshot(long seq, LocalDateTime at, long logOffset, Path file) {
+            this.seq = seq;
+            this.at = at;
+            this.logOffset = logOffset;
+            this.file = file;
+        }
+    }
+
+    // เขียน snapshot ใหม่ทุก ๆ กี่เหตุการณ์ / เก็บ snapshot ไว้กี่ไฟล์
+    static final int SNAPSHOT_EVERY = 1000;
+    static final int KEEP_SNAPSHOTS = 10;
+
+    private final Path dir;
+    private final Path log;
+    private final TreeMap<LocalDateTime, Snapshot> snapshots = new TreeMap<>();
+    // thread เดียวสำหรับเขียน snapshot (ทำตามลำดับ จึงต่อยอดจาก snapshot ก่อนหน้าได้เสมอ)
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "history-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+    private OutputStream logOut;
+    private long logSize;
+    private long seq;
+
+    /**
+     * เปิด (หรือสร้าง) ประวัติในโฟลเดอร์ dir
+     * - ครั้งแรก: สร้าง events.log จากใบสมัครที่มีอยู่ (APPLIED ตามเวลาสมัคร, GRADED ณ เวลาที่เริ่มเก็บ)
+     *   แล้วเขียน snapshot แรกไว้
+     */
+    ApplicationHistory(Path dir, Supplier<List<Application>> currentState) throws IOException {
+        this.dir = dir;
+        this.log = dir.resolve("events.log");
+        Files.createDirectories(dir);
+
+        boolean fresh = !Files.exists(log);
+        if (!fresh) {
+            truncateTornTail();
+            logSize = Files.size(log);
+            seq = lastSeq();
+            loadSnapshotIndex();
+        }
+        logOut = new BufferedOutputStream(Files.newOutputStream(log, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+
+        if (fresh) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Application> existing = currentState.get();
+            for (Application a : existing) {
+                append(EventType.APPLIED, a.jobId, a.candidateId, a.appliedAt, "",
+                        a.appliedAt == null ? now : a.appliedAt, "import");
+            }
+            for (Application a : existing) {
+                if (!a.grade.isEmpty()) append(EventType.GRADED, a.jobId, a.candidateId, a.appliedAt, a.grade, now, "import");
+            }
+            logOut.flush();
+            scheduleSnapshot();
+        }
+    }
+
+    /** บันทึกเหตุการณ์ใหม่ (เรียกภายใต้ล็อกของ Repository) */
+    synchronized void record(EventType type, Application a, String actor) throws IOException {
+        append(type, a.jobId, a.candidateId, a.appliedAt, a.grade, LocalDateTime.now(), actor);
+        logOut.flush();
+        if (seq % SNAPSHOT_EVERY == 0) scheduleSnapshot();
+    }
+
+    /** บันทึกเหตุการณ์ชนิดเดียวกันหลายรายการ (เช่น ARCHIVED ตอนย้ายเข้าคลัง): flush ครั้งเดียว และ snapshot อย่างมากครั้งเดียว */
+    synchronized void recordAll(EventType type, List<Application> rows, String actor) throws IOException {
+        if (rows.isEmpty()) return;
+        long before = seq;
+        LocalDateTime now = LocalDateTime.now();
+        for (Application a : rows) append(type, a.jobId, a.candidateId, a.appliedAt, a.grade, now, actor);
+        logOut.flush();
+        if (seq / SNAPSHOT_EVERY != before / SNAPSHOT_EVERY) scheduleSnapshot();
+    }
+
+    private void append(EventType type, String jobId, String candId, LocalDateTime appliedAt,
+                        String grade, LocalDateTime at, String actor) throws IOException {
+        Event e = new Event(++seq, at, type, jobId, candId, appliedAt, grade, actor);
+        byte[] bytes = (e.toLine() + "\n").getBytes(StandardCharsets.UTF_8);
+        logOut.write(bytes);
+        logSize += bytes.length;
+    }
+
+    // จดตำแหน่งปัจจุบัน (seq/เวลา/ตำแหน่งใน log ซึ่ง flush แล้ว) แล้วให้ thread พื้นหลังเขียน snapshot
+    private void scheduleSnapshot() {
+        long upTo = seq, offset = logSize;
+        LocalDateTime at = LocalDateTime.now();
+        snapshotWriter.execute(() -> {
+            try {
+                writeSnapshot(upTo, at, offset);
+            } catch (IOException | RuntimeException e) {
+                // ไม่มี snapshot นี้ asOf ยังถูกต้อง (replay จาก snapshot ก่อนหน้า) จึงแค่แจ้งเตือน
+                System.err.println("history: cannot write snapshot " + upTo + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // snapshot ที่ seq = upTo: ต่อยอดจาก snapshot ล่าสุดที่มี แล้ว replay log ต่อจนถึง upTo
+    // เขียนลงไฟล์ .tmp ก่อนแล้วค่อยเปลี่ยนชื่อ (ไฟล์ที่ค้างครึ่งทางจะไม่ถูกอ่านเป็น snapshot)
+    private void writeSnapshot(long upTo, LocalDateTime at, long offset) throws IOException {
+        Snapshot base;
+        synchronized (this) {
+            Map.Entry<LocalDateTime, Snapshot> last = snapshots.lastEntry();
+            base = last == null ? null : last.getValue();
+        }
+        Map<String, Application> state = new LinkedHashMap<>();
+        long from = 0;
+        if (base != null && base.logOffset <= offset) {
+            readSnapshot(base.file, state);
+            from = base.logOffset;
+        }
+        replay(from, offset, state, null);
+
+        Path file = dir.resolve("snapshot-" + upTo + ".csv");
+        Path tmp = dir.resolve("snapshot-" + upTo + ".csv.tmp");
+        try (BufferedWriter bw = Files.newBufferedWriter(tmp)) {
+            bw.write("#snapshot," + upTo + "," + at + "," + offset);
+            bw.newLine();
+            bw.write(ApplicationStore.HEADER);
+            bw.newLine();
+            for (Application a : state.values()) {
+                bw.write(a.jobId + "," + a.candidateId + "," + (a.appliedAt == null ? "" : a.appliedAt) + "," + a.grade);
+                bw.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> expired = new ArrayList<>();
+        synchronized (this) {
+            snapshots.put(at, new Snapshot(upTo, at, offset, file));
+            while (snapshots.size() > KEEP_SNAPSHOTS) expired.add(snapshots.pollFirstEntry().getValue().file);
+        }
+        for (Path p : expired) Files.deleteIfExists(p);
+    }
+
+    private void loadSnapshotIndex() throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) s.filter(f -> f.getFileName().toString().startsWith("snapshot-"))::iterator) {
+                if (p.getFileName().toString().endsWith(".tmp")) {
+                    Files.delete(p); // snapshot ที่เขียนไม่เสร็จก่อนโปรแกรมปิด
+                    continue;
+                }
+                try (BufferedReader br = Files.newBufferedReader(p)) {
+                    String[] h = br.readLine().split(",", -1);
+                    LocalDateTime at = LocalDateTime.parse(h[2]);
+                    snapshots.put(at, new Snapshot(Long.parseLong(h[1]), at, Long.parseLong(h[3]), p));
+                }
+            }
+        }
+    }
+
+    // ตัดบรรทัดท้าย events.log ที่ไม่มี '\n' ปิด (เขียนไม่จบเพราะโปรแกรมหยุดกลางทาง) ไม่งั้นอ่านไม่ได้
+    // และเหตุการณ์ถัดไปจะถูกต่อท้ายบรรทัดที่เสียนั้น
+    private void truncateTornTail() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(log.toFile(), "rw")) {
+            long end = raf.length();
+            while (end > 0) {
+                raf.seek(end - 1);
+                if (raf.read() == '\n') break;
+                end--;
+            }
+            if (end < raf.length()) {
+                System.err.println("history: dropping incomplete last line of " + log + " (" + (raf.length() - end) + " bytes)");
+                raf.setLength(end);
+            }
+        }
+    }
+
+    // seq ล่าสุดจากบรรทัดสุดท้ายของ events.log (อ่านจากท้ายไฟล์ ไม่ต้องไล่ทั้งไฟล์)
+    private long lastSeq() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(log.toFile(), "r")) {
+            long pos = raf.length() - 1;
+            while (pos >= 0) {
+                raf.seek(pos);
+                if (raf.read() == '\n' && pos != raf.length() - 1) break;
+                pos--;
+            }
+            raf.seek(pos + 1);
+            String line = raf.readLine();
+            return (line == null || line.isBlank()) ? 0 : Long.parseLong(line.split(",", 2)[0]);
+        }
+    }
+
+    /** รอ snapshot ที่ค้างอยู่เขียนเสร็จ แล้วปิด events.log (เรียกจาก Repository.close()) */
+    @Override
+    public void close() throws IOException {
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) { logOut.close(); }
+    }
+
+    // ===== คิวรีย้อนเวลา =====
+
+    /** สถานะใบสมัครทั้งหมด ณ เวลา t (replay จาก snapshot ที่ใกล้ที่สุดก่อน t) */
+    public List<Application> asOf(LocalDateTime t) throws IOException {
+        Snapshot snap;
+        long end;
+        synchronized (this) {
+            logOut.flush();
+            end = logSize;
+            Map.Entry<LocalDateTime, Snapshot> e = snapshots.floorEntry(t);
+            snap = e == null ? null : e.getValue();
+        }
+        Map<String, Application> state = new LinkedHashMap<>();
+        long offset = 0;
+        if (snap != null) {
+            try {
+                readSnapshot(snap.file, state);
+                offset = snap.logOffset;
+            } catch (NoSuchFileException gone) {
+                state.clear(); // ถูกลบเพราะเกิน KEEP_SNAPSHOTS ระหว่างนั้น → replay จากต้น log แทน
+            }
+        }
+        replay(offset, end, state, t);
+        return new ArrayList<>(state.values());
+    }
+
+    private static void readSnapshot(Path file, Map<String, Application> state) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 2; i < lines.size(); i++) {
+            String[] p = lines.get(i).split(",", -1);
+            if (p.length < 4) continue;
+            LocalDateTime ts = p[2].isBlank() ? null : LocalDateTime.parse(p[2]);
+            state.put(p[0] + "," + p[1], new Application(p[0], p[1], ts, p[3]));
+        }
+    }
+
+    // ใช้เหตุการณ์ใน log ช่วง byte [offset, end) ที่เกิดไม่เกินเวลา until (null = ไม่จำกัด) กับ state
+    // ข้ามเหตุการณ์หลัง until แต่ไม่หยุด เพราะเวลาใน log ไม่รับประกันว่าเรียง
+    private void replay(long offset, long end, Map<String, Application> state, LocalDateTime until) throws IOException {
+        scan(offset, end, ev -> {
+            if (until != null && ev.at.isAfter(until)) return;
+            String key = ev.jobId + "," + ev.candidateId;
+            switch (ev.type) {
+                case APPLIED:  state.put(key, new Application(ev.jobId, ev.candidateId, ev.appliedAt, "")); break;
+                case GRADED:   state.computeIfPresent(key, (k, a) -> new Application(a.jobId, a.candidateId, a.appliedAt, ev.grade)); break;
+                case ARCHIVED: state.remove(key); break;
+            }
+        });
+    }
+
+    // อ่านเหตุการณ์ใน log ช่วง byte [offset, end) ตามลำดับ seq
+    // (ไม่อ่านเกิน end: ส่วนท้ายไฟล์อาจเป็นบรรทัดที่กำลังเขียนอยู่)
+    private void scan(long offset, long end, Consumer<Event> action) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(log.toFile(), "r")) {
+            raf.seek(offset);
+            BufferedReader br = new BufferedReader(new InputStreamReader(Channels.newInputStream(raf.getChannel()), StandardCharsets.UTF_8));
+            String line;
+            long pos = offset;
+            while ((line = br.readLine()) != null) {
+                pos += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (pos > end) break;
+                if (line.isBlank()) continue;
+                action.accept(Event.parse(line));
+            }
+        }
+    }
+
+    /** เหตุการณ์ทั้งหมดของใบสมัคร (jobId, candidateId) ตามลำดับที่บันทึก — ใช้ตรวจว่าใครแก้เกรดเมื่อไร */
+    public List<Event> eventsFor(String jobId, String candidateId) throws IOException {
+        long end;
+        synchronized (this) {
+            logOut.flush();
+            end = logSize;
+        }
+        List<Event> out = new ArrayList<>();
+        scan(0, end, ev -> {
+            if (ev.jobId.equals(jobId) && ev.candidateId.equals(candidateId)) out.add(ev);
+        });
+        return out;
+    }
+}
@@ -0,0 +1,129 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ApplicationStats: ตัวนับสรุป (aggregate) ของใบสมัครสำหรับหน้า Dashboard ของแอดมิน
+ *
+ *  - จำนวนใบสมัครต่องาน / ต่อบริษัท
+ *  - การกระจายเกรดต่องาน (A,B,C,D,F และยังไม่ให้เกรด)
+ *  - จำนวนใบสมัครและจำนวนงานที่มีผู้สมัครแล้ว แยกตามประเภท COOP / REGULAR
+ *  - ผู้สมัครอันดับ 1 ต่องาน (ลำดับเดียวกับ JobRanking.ORDER) สำหรับคอลัมน์ "Top candidate"
+ *    ลดเกรดของอันดับ 1 ลง → Repository ส่งใบสมัครของงานนั้นมาให้หาใหม่ (bestOf)
+ *
+ * Repository อัปเดตตัวนับทีละรายการตอน appendApplication / saveGrade
+ * ส่วนตอนโหลดไฟล์จะสร้างแบบขนาน (แต่ละ thread สร้างของตัวเองแล้วนำมา merge)
+ * เมธอดเป็น synchronized เพราะ Dashboard อ่านจาก EDT ขณะที่ writer thread อาจกำลังอัปเดต
+ */
+public class ApplicationStats {
+
+    // ลำดับช่องของเกรดใน array: A B C D F และช่องสุดท้ายคือ "ยังไม่ให้เกรด"
+    public static final String[] GRADES = { "A", "B", "C", "D", "F", "" };
+
+    private final Map<String, Integer> perJob = new HashMap<>();
+    private final Map<String, Integer> perCompany = new HashMap<>();
+    private final Map<String, int[]> gradesPerJob = new HashMap<>();
+    private final int[] appsPerType = new int[Job.JobType.values().length];
+    private final int[] jobsWithAppsPerType = new int[Job.JobType.values().length];
+    private final Map<String, Application> bestPerJob = new HashMap<>();
+    private final Map<String, Job.JobType> typeOfJob = new HashMap<>(); // ใช้ตอน merge
+    private int total;
+
+    // แปลงเกรดเป็น index ใน GRADES (ค่าว่าง/ไม่รู้จัก → ช่องสุดท้าย)
+    static int gradeSlot(String grade) {
+        if (grade != null && grade.length() == 1) {
+            for (int i = 0; i < GRADES.length - 1; i++) if (GRADES[i].equals(grade)) return i;
+        }
+        return GRADES.length - 1;
+    }
+
+    /** นับใบสมัครใหม่ 1 ใบ (job อาจเป็น null ถ้าไม่พบงานใน jobs.csv) */
+    public synchronized void add(Application a, Job job) {
+        total++;
+        int n = perJob.merge(a.jobId, 1, Integer::sum);
+        gradesPerJob.computeIfAbsent(a.jobId, k -> new int[GRADES.length])[gradeSlot(a.grade)]++;
+        bestPerJob.merge(a.jobId, a, ApplicationStats::better);
+        if (job == null) return;
+        perCompany.merge(job.companyId, 1, Integer::sum);
+        appsPerType[job.type.ordinal()]++;
+        if (n == 1) {
+            typeOfJob.put(a.jobId, job.type);
+            jobsWithAppsPerType[job.type.ordinal()]++;
+        }
+    }
+
+    /**
+     * ย้ายตัวนับเกรดของใบสมัคร a (แก้ a.grade แล้ว) จากเกรดเดิมไปเกรดใหม่ และอัปเดตอันดับ 1 ของงาน
+     * คืน true ถ้า a เคยเป็นอันดับ 1 แล้วถูกลดเกรด → ผู้เรียกต้องหาอันดับ 1 ใหม่ด้วย bestOf
+     */
+    public synchronized boolean regrade(Application a, String oldGrade) {
+        int[] g = gradesPerJob.get(a.jobId);
+        if (g == null) return false;
+        g[gradeSlot(oldGrade)]--;
+        g[gradeSlot(a.grade)]++;
+        Application best = bestPerJob.get(a.jobId);
+        // เทียบด้วย candidateId (โหมด mmap ถอดแถวเป็น object ใหม่ทุกครั้ง)
+        if (best == null || !best.candidateId.equals(a.candidateId)) {
+            bestPerJob.merge(a.jobId, a, ApplicationStats::better);
+            return false;
+        }
+        bestPerJob.put(a.jobId, a);
+        return gradeSlot(a.grade) > gradeSlot(oldGrade);
+    }
+
+    /** ตั้งอันดับ 1 ของงานใหม่จากใบสมัครทั้งหมดของงานนั้น (หลัง regrade คืน true) */
+    public synchronized void bestOf(String jobId, Iterable<Application> ofJob) {
+        bestPerJob.remove(jobId);
+        for (Application a : ofJob) {
+            if (jobId.equals(a.jobId)) bestPerJob.merge(jobId, a, ApplicationStats::better);
+        }
+    }
+
+    private static Application better(Application x, Application y) {
+        return JobRanking.ORDER.compare(y, x) < 0 ? y : x;
+    }
+
+    /** รวมผลจากอีกชุดหนึ่ง (ใช้ตอนสร้างแบบขนาน) */
+    public synchronized ApplicationStats merge(ApplicationStats o) {
+        total += o.total;
+        o.perCompany.forEach((k, v) -> perCompany.merge(k, v, Integer::sum));
+        for (int i = 0; i < appsPerType.length; i++) appsPerType[i] += o.appsPerType[i];
+        o.bestPerJob.forEach((k, v) -> bestPerJob.merge(k, v, ApplicationStats::better));
+        for (Map.Entry<String, Integer> e : o.perJob.entrySet()) {
+            String jobId = e.getKey();
+            int[] theirs = o.gradesPerJob.get(jobId);
+            if (perJob.containsKey(jobId)) {
+                int[] mine = gradesPerJob.get(jobId);
+                for (int i = 0; i < mine.length; i++) mine[i] += theirs[i];
+                perJob.merge(jobId, e.getValue(), Integer::sum);
+            } else {
+                // งานนี้เพิ่งมีผู้สมัครเป็นครั้งแรกเมื่อรวมกัน → นับเป็นงานที่มีผู้สมัครแล้ว
+                perJob.put(jobId, e.getValue());
+                gradesPerJob.put(jobId, theirs.clone());
+                Job.JobType t = o.typeOfJob.get(jobId);
+                if (t != null) {
+                    typeOfJob.put(jobId, t);
+                    jobsWithAppsPerType[t.ordinal()]++;
+                }
+            }
+        }
+        return this;
+    }
+
+    // ===== ส่วนอ่านค่า (ทุกตัวเป็น O(1)) =====
+    public synchronized int total() { return total; }
+    public synchronized int countForJob(String jobId) { return perJob.getOrDefault(jobId, 0); }
+    public synchronized int countForCompany(String companyId) { return perCompany.getOrDefault(companyId, 0); }
+    public synchronized int countForType(Job.JobType t) { return appsPerType[t.ordinal()]; }
+    public synchronized int jobsWithApplications(Job.JobType t) { return jobsWithAppsPerType[t.ordinal()]; }
+
+    /** ผู้สมัครอันดับ 1 ของงาน (เกรดดีสุด → สมัครก่อน) หรือ null ถ้ายังไม่มีใบสมัคร */
+    public synchronized Application topForJob(String jobId) { return bestPerJob.get(jobId); }
+
+    /** จำนวนใบสมัครต่อเกรดของงาน (เรียงตาม GRADES) — คืนสำเนา */
+    public synchronized int[] gradesForJob(String jobId) {
+        int[] g = gradesPerJob.get(jobId);
+        return g == null ? new int[GRADES.length] : g.clone();
+    }
+}
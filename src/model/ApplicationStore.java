@@ -0,0 +1,398 @@
+package model;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ApplicationStore: ที่เก็บใบสมัครของ Repository แบ่งเป็น segment ตาม shard key
+ *
+ * - ในหน่วยความจำ: แบ่งเป็น segment ตาม jobId (หรือ companyId เมื่อ shard ตามบริษัท)
+ *   การหาใบสมัคร (jobId, candidateId) ไล่เฉพาะ segment เดียว
+ * - บนดิสก์:
+ *     ShardBy.NONE            → applications.csv ไฟล์เดียว (แบบเดิม)
+ *     ShardBy.JOB / COMPANY   → applications/<key>.csv หนึ่งไฟล์ต่อ shard
+ *       (ชื่อไฟล์เข้ารหัสแบบ percent: อักขระนอก [a-z0-9_-] รวมถึงตัวพิมพ์ใหญ่ เป็น %XX ของ UTF-8
+ *        → key ต่างกันได้ไฟล์ต่างกันเสมอ แม้บนระบบไฟล์ที่ไม่แยกตัวพิมพ์เล็ก/ใหญ่ เช่น Windows/macOS)
+ *   การ append / เขียนเกรดกลับ จะแตะเฉพาะไฟล์ของ shard นั้น และโหลดทุก shard แบบขนาน
+ * - คิวรีข้ามทุก shard (all / parallelStream) รวมผลจากทุก segment (scatter/gather)
+ *   โหมด NONE คงลำดับตามที่บันทึก (ลำดับเดียวกับในไฟล์) ส่วนโหมด shard เรียงตามเวลาสมัคร
+ * - โหมด mmap (ใช้ได้กับ ShardBy.NONE เท่านั้น): ส่งต่อทุกอย่างให้ MappedApplications
+ *   ไม่เก็บ Application บน heap (all() คืนรายการแบบ lazy ตามลำดับในไฟล์)
+ *
+ * ใช้ภายใน Repository เท่านั้น (Repository เป็นคนคุมล็อก)
+ */
+class ApplicationStore {
+
+    static final String HEADER = "job_id,candidate_id,applied_at,grade";
+
+    // เรียงใบสมัครตามเวลาสมัคร (ค่าว่างไว้ก่อน) สำหรับรวมผลข้าม segment ให้ลำดับคงที่
+    private static final Comparator<Application> BY_APPLIED_AT =
+            Comparator.comparing((Application a) -> a.appliedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final Repository.ShardBy shardBy;
+    private final Path file;     // applications.csv (โหมด NONE)
+    private final Path dir;      // applications/ (โหมด shard)
+    private final Function<String, String> companyOfJob;
+
+    private final Map<String, List<Application>> segments = new LinkedHashMap<>();
+    // โหมด NONE: ทุกใบสมัครตามลำดับที่บันทึก (all() / เขียนไฟล์ใหม่ ไม่ต้องเรียงและไม่สลับลำดับแถว)
+    private final List<Application> inOrder = new ArrayList<>();
+    // ดัชนีรอง: candidateId → ใบสมัครของผู้สมัครคนนั้น (ใช้สร้างโปรไฟล์แนะนำงาน)
+    private final Map<String, List<Application>> byCandidate = new HashMap<>();
+    private int size;
+    private boolean headerHasGrade = true; // โหมด NONE: ไฟล์เดิมอาจเป็นแบบ 3 คอลัมน์
+    private final MappedApplications mapped; // null = เก็บบน heap ตามปกติ
+
+    ApplicationStore(Repository.ShardBy shardBy, boolean mmap, Path file, Function<String, String> companyOfJob) {
+        if (mmap && shardBy != Repository.ShardBy.NONE) {
+            throw new IllegalArgumentException("mmap mode cannot be combined with sharding");
+        }
+        this.shardBy = shardBy;
+        this.file = file;
+        this.dir = file.resolveSibling("applications");
+        this.companyOfJob = companyOfJob;
+        this.mapped = mmap ? new MappedApplications(file) : null;
+    }
+
+    // shard key ของงาน (งานที่ไม่รู้บริษัทจะไปอยู่ segment "unknown")
+    String keyOf(String jobId) {
+        if (shardBy != Repository.ShardBy.COMPANY) return jobId;
+        String c = companyOfJob.apply(jobId);
+        return c == null ? "unknown" : c;
+    }
+
+    private Path shardFile(String key) {
+        return dir.resolve(encodeKey(key) + ".csv");
+    }
+
+    // percent-encoding ของ key (ถอดกลับได้): เก็บ [a-z0-9_-] ไว้ อักขระอื่นรวมถึงตัวพิมพ์ใหญ่และ '%' เป็น %XX
+    // (เลขฐาน 16 เป็นตัวพิมพ์ใหญ่เสมอ จึงไม่มีสองชื่อที่ต่างกันแค่ตัวพิมพ์)
+    static String encodeKey(String key) {
+        StringBuilder sb = new StringBuilder(key.length());
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-') {
+                sb.append(c);
+            } else {
+                sb.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return sb.toString();
+    }
+
+    // ===== โหลด =====
+
+    /**
+     * โหลดใบสมัครทั้งหมด
+     * - โหมด NONE: ถ้าไม่มี applications.csv ให้สร้างหัว 4 คอลัมน์
+     * - โหมด shard: ถ้ายังไม่มีโฟลเดอร์ applications/ ให้แตก applications.csv เดิมเป็น shard
+     *   (แล้วเปลี่ยนชื่อไฟล์เดิมเป็น applications.csv.sharded เพื่อไม่ให้สับสน)
+     */
+    void load() throws IOException {
+        if (shardBy == Repository.ShardBy.NONE) {
+            if (!Files.exists(file)) {
+                Files.createDirectories(file.getParent());
+                Files.write(file, (HEADER + "\n").getBytes(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
+            if (mapped != null) mapped.open();
+            else for (Application a : readFile(file)) add(a);
+            return;
+        }
+
+        if (!Files.isDirectory(dir)) {
+            Files.createDirectories(dir);
+            if (Files.exists(file)) {
+                for (Application a : readFile(file)) add(a);
+                for (String key : segments.keySet()) writeShard(key);
+                Files.move(file, file.resolveSibling("applications.csv.sharded"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return;
+        }
+
+        // โหลดทุก shard แบบขนาน แล้วรวมเข้า map ตามลำดับชื่อไฟล์
+        List<Path> files;
+        try (Stream<Path> s = Files.list(dir)) {
+            files = s.filter(p -> p.toString().endsWith(".csv")).sorted().collect(Collectors.toList());
+        }
+        List<List<Application>> loaded;
+        try {
+            loaded = files.parallelStream().map(p -> {
+                try {
+                    return readFile(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (List<Application> part : loaded) for (Application a : part) add(a);
+    }
+
+    // อ่านไฟล์ใบสมัคร 1 ไฟล์ (รองรับหัวแบบ 3 และ 4 คอลัมน์)
+    private List<Application> readFile(Path p) throws IOException {
+        return Profiling.timeValue(new Profiling.CsvLoad(), "csv-load", ev -> {
+            ev.file = p.getFileName().toString();
+            List<Application> out = parseFile(p);
+            ev.rows = out.size();
+            ev.bytes = Files.size(p);
+            return out;
+        });
+    }
+
+    private List<Application> parseFile(Path p) throws IOException {
+        List<String> lines = Files.readAllLines(p);
+        List<Application> out = new ArrayList<>();
+        if (lines.isEmpty()) return out;
+
+        // ตรวจจากหัวบรรทัดแรกว่ามีคอลัมน์ grade ไหม
+        boolean hasGrade = lines.get(0).toLowerCase().contains("grade");
+        if (p.equals(file)) headerHasGrade = hasGrade;
+
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) continue;
+
+            String[] parts = line.split(",", -1); // split แบบง่าย ๆ
+            // แปลงเวลา (อาจว่างได้)
+            LocalDateTime ts = (parts.length > 2 && !parts[2].isBlank()) ? LocalDateTime.parse(parts[2]) : null;
+            // ถ้ามีคอลัมน์ grade และจำนวนคอลัมน์พอ โดยใช้ค่าที่อ่านได้ ไม่งั้นให้เป็นว่าง
+            String grade = (hasGrade && parts.length > 3) ? parts[3] : "";
+            out.add(new Application(parts[0], parts[1], ts, grade));
+        }
+        return out;
+    }
+
+    // ===== หน่วยความจำ =====
+
+    void add(Application a) {
+        if (mapped != null) return; // โหมด mmap: ใส่ดัชนีแล้วตอน appendToDisk
+        segments.computeIfAbsent(keyOf(a.jobId), k -> new ArrayList<>()).add(a);
+        if (shardBy == Repository.ShardBy.NONE) inOrder.add(a);
+        byCandidate.computeIfAbsent(a.candidateId, k -> new ArrayList<>()).add(a);
+        size++;
+    }
+
+    /** ใบสมัครทั้งหมดของผู้สมัครคนหนึ่ง (สำเนา) */
+    List<Application> ofCandidate(String candidateId) {
+        if (mapped != null) return mapped.ofCandidate(candidateId);
+        List<Application> list = byCandidate.get(candidateId);
+        return list == null ? new ArrayList<>() : new ArrayList<>(list);
+    }
+
+    /** หาใบสมัคร (ไล่เฉพาะ segment ของงานนั้น) */
+    Application find(String jobId, String candidateId) {
+        if (mapped != null) return mapped.find(jobId, candidateId);
+        List<Application> seg = segments.get(keyOf(jobId));
+        if (seg == null) return null;
+        for (Application a : seg) {
+            if (a.jobId.equals(jobId) && a.candidateId.equals(candidateId)) return a;
+        }
+        return null;
+    }
+
+    int size() { return mapped != null ? mapped.size() : size; }
+
+    /** ใบสมัครทั้งหมด: โหมด NONE ตามลำดับที่บันทึก, โหมด shard รวมทุก segment แล้วเรียงตามเวลาสมัคร */
+    List<Application> all() {
+        if (mapped != null) return mapped.all();
+        if (shardBy == Repository.ShardBy.NONE) return new ArrayList<>(inOrder);
+        List<Application> out = new ArrayList<>(size);
+        for (List<Application> seg : segments.values()) out.addAll(seg);
+        out.sort(BY_APPLIED_AT);
+        return out;
+    }
+
+    /** ไล่ทุกใบสมัคร (ไม่รับประกันลำดับ) */
+    void forEach(Consumer<Application> action) {
+        if (mapped != null) { mapped.all().forEach(action); return; }
+        for (List<Application> seg : segments.values()) seg.forEach(action);
+    }
+
+    /** stream แบบขนานข้ามทุก segment */
+    Stream<Application> parallelStream() {
+        if (mapped != null) return mapped.parallelStream();
+        return segments.values().parallelStream().flatMap(List::stream);
+    }
+
+    /**
+     * ใบสมัครสำหรับส่งออก (jobIds = null → ทั้งหมด) — เรียกภายใต้ล็อก แล้วไล่ผลนอกล็อกได้
+     * - โหมด heap: สำเนาเฉพาะ reference (toArray) ของ segment ที่เกี่ยวข้อง ไม่สร้าง Application ใหม่
+     *   ระบุงาน → อ่านเฉพาะ segment ของงานนั้น
+     * - โหมด mmap: รายการ lazy บน mapping ณ ตอนเรียก (ไม่คัดลอกอะไร)
+     */
+    Iterable<Application> exportView(Set<String> jobIds) {
+        if (mapped != null) return jobIds == null ? mapped.all() : mapped.ofJobs(jobIds);
+        if (jobIds == null) {
+            if (shardBy == Repository.ShardBy.NONE) return Arrays.asList(inOrder.toArray(new Application[0]));
+            List<Application> out = new ArrayList<>(size);
+            for (List<Application> seg : segments.values()) out.addAll(seg);
+            return out;
+        }
+        List<Application> out = new ArrayList<>();
+        Set<String> keys = new LinkedHashSet<>();
+        for (String jobId : jobIds) keys.add(keyOf(jobId));
+        for (String key : keys) {
+            for (Application a : segments.getOrDefault(key, Collections.emptyList())) {
+                if (jobIds.contains(a.jobId)) out.add(a);
+            }
+        }
+        return out;
+    }
+
+    /** ตัดใบสมัครของงานใน jobIds ออกจากหน่วยความจำเท่านั้น (follower ได้รับ log R จาก leader) */
+    void removeJobsInMemory(Set<String> jobIds) {
+        List<Application> keep = new ArrayList<>();
+        for (Application a : all()) if (!jobIds.contains(a.jobId)) keep.add(a);
+        replaceAll(keep);
+    }
+
+    /** แทนที่ทั้งหมด (ใช้ตอน follower รับ snapshot) — ไม่เขียนดิสก์ */
+    void replaceAll(Collection<Application> all) {
+        if (mapped != null) {
+            // โหมด mmap เก็บข้อมูลในไฟล์เท่านั้น จึงต้องเขียนไฟล์ใหม่แล้ว map ใหม่
+            try {
+                mapped.replaceWith(new ArrayList<>(all));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        segments.clear();
+        inOrder.clear();
+        byCandidate.clear();
+        size = 0;
+        for (Application a : all) add(a);
+    }
+
+    /**
+     * ย้ายใบสมัครของงานใน jobIds ออก (ใช้ตอน archive) แล้วเขียนไฟล์ที่เกี่ยวข้องใหม่
+     * - โหมด NONE / mmap: เขียนไฟล์หลักใหม่ทั้งไฟล์ (mmap: ผ่าน .tmp แล้ว move ทับ)
+     * - โหมด shard: เขียนเฉพาะ shard ที่มีใบสมัครถูกย้าย (shard ที่ว่างแล้วจะถูกลบ)
+     *   แต่ละไฟล์แทนแบบ atomic แต่หลาย shard ไม่ใช่ → หยุดกลางทางได้ (ดู ApplicationArchive.recover)
+     * คืนใบสมัครที่ถูกย้าย
+     */
+    List<Application> removeJobs(Set<String> jobIds) throws IOException {
+        // โหมด mmap: เขียน .tmp แล้ว move ทับ (ไม่ตัดไฟล์ที่ยัง map อยู่ในที่เดิม)
+        if (mapped != null) return mapped.removeJobs(jobIds);
+
+        List<Application> removed = new ArrayList<>();
+
+        Set<String> touched = new LinkedHashSet<>();
+        for (String jobId : jobIds) {
+            String key = keyOf(jobId);
+            List<Application> seg = segments.get(key);
+            if (seg == null) continue;
+            for (Iterator<Application> it = seg.iterator(); it.hasNext(); ) {
+                Application a = it.next();
+                if (!a.jobId.equals(jobId)) continue;
+                it.remove();
+                removed.add(a);
+                List<Application> mine = byCandidate.get(a.candidateId);
+                if (mine != null) mine.remove(a);
+                touched.add(key);
+            }
+        }
+        size -= removed.size();
+        if (removed.isEmpty()) return removed;
+
+        if (shardBy == Repository.ShardBy.NONE) {
+            inOrder.removeIf(a -> jobIds.contains(a.jobId));
+            rewriteAll();
+            return removed;
+        }
+        for (String key : touched) {
+            if (segments.get(key).isEmpty()) {
+                segments.remove(key);
+                Files.deleteIfExists(shardFile(key));
+            } else {
+                writeShard(key);
+            }
+        }
+        return removed;
+    }
+
+    // ===== ดิสก์ =====
+
+    /** ต่อท้ายใบสมัคร 1 แถวลงไฟล์ (ไฟล์เดียว หรือไฟล์ของ shard) — คืนจำนวนไบต์ที่เขียน */
+    int appendToDisk(Application a) throws IOException {
+        if (mapped != null) return mapped.append(a);
+        String ts = a.appliedAt == null ? "" : a.appliedAt.toString();
+        if (shardBy == Repository.ShardBy.NONE) {
+            // ถ้าไฟล์มีหัวคอลัมน์ grade อยู่แล้ว → เขียนคอมม่า "," ปลายบรรทัดเผื่อคอลัมน์เกรดว่าง
+            String line = a.jobId + "," + a.candidateId + "," + ts + (headerHasGrade ? "," + a.grade : "") + System.lineSeparator();
+            byte[] bytes = line.getBytes();
+            Files.write(file, bytes, StandardOpenOption.APPEND);
+            return bytes.length;
+        }
+        Path p = shardFile(keyOf(a.jobId));
+        String line = a.jobId + "," + a.candidateId + "," + ts + "," + a.grade + System.lineSeparator();
+        if (!Files.exists(p)) line = HEADER + System.lineSeparator() + line;
+        byte[] bytes = line.getBytes();
+        Files.write(p, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return bytes.length;
+    }
+
+    /**
+     * บันทึกเกรดที่แก้แล้วของใบสมัคร a — คืนจำนวนไบต์ที่เขียน
+     * - โหมด NONE: เขียนไฟล์ใหม่ทั้งไฟล์, โหมด shard: เขียนเฉพาะ shard นั้น
+     * - โหมด mmap: ต่อท้ายไฟล์ .grades 1 บรรทัด (รวมเข้าไฟล์หลักเป็นระยะ)
+     */
+    long saveGrade(Application a) throws IOException {
+        if (mapped != null) return mapped.saveGrade(a);
+        if (shardBy == Repository.ShardBy.NONE) return rewriteAll();
+        return writeShard(keyOf(a.jobId));
+    }
+
+    /** จำนวนแถวที่ saveGrade ของงาน jobId เขียน (ทั้งไฟล์ ทั้ง shard หรือ 1 แถวในโหมด mmap) */
+    int rowsRewrittenFor(String jobId) {
+        if (mapped != null) return 1;
+        if (shardBy == Repository.ShardBy.NONE) return size();
+        return segments.getOrDefault(keyOf(jobId), Collections.emptyList()).size();
+    }
+
+    /** เขียนทุกอย่างกลับลงดิสก์ (ทับทั้งหมด) — คืนจำนวนไบต์รวมที่เขียน */
+    long rewriteAll() throws IOException {
+        if (mapped != null) return mapped.rewrite();
+        if (shardBy == Repository.ShardBy.NONE) {
+            // บังคับหัวคอลัมน์ให้เป็น 4 คอลัมน์เสมอ: job_id,candidate_id,applied_at,grade
+            long bytes = writeRows(file, inOrder);
+            headerHasGrade = true;
+            return bytes;
+        }
+        long bytes = 0;
+        for (String key : segments.keySet()) bytes += writeShard(key);
+        return bytes;
+    }
+
+    private long writeShard(String key) throws IOException {
+        return writeRows(shardFile(key), segments.getOrDefault(key, Collections.emptyList()));
+    }
+
+    // เขียนไฟล์ใหม่ทั้งไฟล์ลง .tmp ข้าง ๆ แล้ว move ทับ (หยุดกลางทาง → ไฟล์เดิมยังครบ) แล้วคืนขนาดไฟล์
+    private static long writeRows(Path p, List<Application> rows) throws IOException {
+        Path tmp = p.resolveSibling(p.getFileName() + ".tmp");
+        try (BufferedWriter bw = Files.newBufferedWriter(tmp)) {
+            bw.write(HEADER);
+            bw.newLine();
+            for (Application a : rows) {
+                String ts = (a.appliedAt == null) ? "" : a.appliedAt.toString();
+                String g  = (a.grade == null) ? "" : a.grade;
+                bw.write(a.jobId + "," + a.candidateId + "," + ts + "," + g);
+                bw.newLine();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(p);
+    }
+}
@@ -0,0 +1,139 @@
+package model;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * CsvRecordStore: ที่เก็บแบบ "ช้า" สำหรับโหมด remote — แทนบริการ/ฐานข้อมูลภายนอกด้วยไฟล์ CSV
+ *
+ * - ตอนเปิด: อ่านไฟล์รอบเดียวเพื่อเก็บเฉพาะ id → byte offset ของแถว (ไม่เก็บ object)
+ * - fetch(id): อ่านแถวเดียวจากไฟล์ด้วย positional read (หลาย thread อ่านพร้อมกันได้)
+ * - จำลองความหน่วงของเครือข่ายได้ด้วย latencyMillis
+ *
+ * ใช้ผ่าน ReadThroughCache ใน Repository เท่านั้น (เปิดไฟล์ค้างไว้จนกว่า Repository.close())
+ */
+class CsvRecordStore implements Closeable {
+
+    private final Path file;
+    private final FileChannel ch;
+    private final Map<String, Long> offsets = new LinkedHashMap<>(); // ลำดับตามไฟล์
+    private final long latencyMillis;
+
+    /** เปิดไฟล์และสร้างดัชนี id (คอลัมน์แรก) → offset; onRow ได้รับทุกแถวระหว่างสร้างดัชนี */
+    CsvRecordStore(Path file, long latencyMillis, Consumer<String[]> onRow) throws IOException {
+        if (!Files.exists(file)) throw new FileNotFoundException("Missing file: " + file.toAbsolutePath());
+        this.file = file;
+        this.latencyMillis = latencyMillis;
+        this.ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            Profiling.time(new Profiling.CsvLoad(), "csv-load", ev -> buildIndex(ev, onRow));
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    private void buildIndex(Profiling.CsvLoad ev, Consumer<String[]> onRow) throws IOException {
+        ev.file = file.getFileName().toString();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long pos = 0, lineStart = 0;
+            boolean header = true;
+            int b;
+            while (true) {
+                b = in.read();
+                if (b == '\n' || b == -1) {
+                    if (!header) index(line, lineStart, onRow);
+                    header = false;
+                    if (b == -1) break;
+                    line.reset();
+                    lineStart = pos + 1;
+                } else {
+                    line.write(b);
+                }
+                pos++;
+            }
+        }
+        ev.rows = offsets.size();
+        ev.bytes = ch.size();
+    }
+
+    private void index(ByteArrayOutputStream raw, long offset, Consumer<String[]> onRow) {
+        String line = raw.toString(StandardCharsets.UTF_8).trim();
+        if (line.isEmpty()) return;
+        String[] r = line.split(",", -1);
+        offsets.put(r[0], offset);
+        if (onRow != null) onRow.accept(r);
+    }
+
+    /** อ่านแถวของ id (คอลัมน์ split แล้ว) — คืน null ถ้าไม่มี id นี้ */
+    String[] fetch(String id) {
+        Long off = offsets.get(id);
+        if (off == null) return null;
+        simulateLatency();
+        try {
+            return readLine(off).trim().split(",", -1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file + " at " + off, e);
+        }
+    }
+
+    /** id ไม่เกิน limit รายการแรกตามลำดับในไฟล์ (จากดัชนี ไม่อ่านไฟล์) */
+    List<String> firstIds(int limit) {
+        List<String> out = new ArrayList<>(Math.min(limit, offsets.size()));
+        for (String id : offsets.keySet()) {
+            if (out.size() >= limit) break;
+            out.add(id);
+        }
+        return out;
+    }
+
+    /** อ่านทุกแถวตามลำดับในไฟล์ (ใช้กับรายการทั้งหมด เช่น getAllCandidates) — ไม่ผ่านแคช จึงไม่ควรเรียกจาก UI */
+    List<String[]> scan() {
+        List<Long> all = new ArrayList<>(offsets.values());
+        Collections.sort(all);
+        List<String[]> out = new ArrayList<>(all.size());
+        try {
+            for (long off : all) out.add(readLine(off).trim().split(",", -1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+        return out;
+    }
+
+    private String readLine(long off) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        ByteBuffer buf = ByteBuffer.allocate(256);
+        long pos = off;
+        while (true) {
+            buf.clear();
+            int n = ch.read(buf, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                byte c = buf.get(i);
+                if (c == '\n') return out.toString(StandardCharsets.UTF_8);
+                out.write(c);
+            }
+            pos += n;
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override public void close() throws IOException {
+        ch.close();
+    }
+
+    private void simulateLatency() {
+        if (latencyMillis <= 0) return;
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -11,11 +11,17 @@ public class Job {
     public String description;
     public String companyId;      
     public LocalDate deadline;    // วันสุดท้ายรับสมัคร
-    public boolean open;          // เปิดรับ/ปิดรับ
+    public volatile boolean open; // เปิดรับ/ปิดรับ (เขียนภายใต้ล็อกของ Repository, อ่านได้จากทุก thread)
     public JobType type;          // REGULAR | COOP
+    public int capacity;          // จำนวนรับสมัครสูงสุด (0 = ไม่จำกัด)
 
     public Job(String id, String title, String description, String companyId,
                LocalDate deadline, boolean open, JobType type) {
+        this(id, title, description, companyId, deadline, open, type, 0);
+    }
+
+    public Job(String id, String title, String description, String companyId,
+               LocalDate deadline, boolean open, JobType type, int capacity) {
         this.id = id;
         this.title = title;
         this.description = description;
@@ -23,5 +29,6 @@ public class Job {
         this.deadline = deadline;
         this.open = open;
         this.type = type;
+        this.capacity = capacity;
     }
 }
@@ -0,0 +1,106 @@
+package model;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * JobRanking: ใบสมัครของแต่ละงานเรียงตาม เกรด (A ก่อน, ยังไม่ให้เกรดไว้ท้าย) → เวลาสมัคร (ก่อนได้ก่อน) → candidateId
+ *
+ * - สร้างครั้งแรกตอนถูกถามครั้งแรก (ไล่ใบสมัครทั้งหมดรอบเดียว) แล้วอัปเดตทีละรายการตอนสมัคร/แก้เกรด
+ * - top-k ไล่จากหัว TreeSet → O(log n + k) ไม่ต้องสแกนหรือเรียงใหม่
+ * - Application.grade แก้ได้ จึงต้อง remove ก่อนแก้เกรด แล้ว add หลังแก้ (ดู Repository.updateGradeInMemory)
+ * - โหมด mmap (retain = false): ไม่สร้าง TreeSet เพราะจะดึงทุกแถวของไฟล์ขึ้นมาค้างบน heap
+ *   top / topPerJob จะไล่ source ทีละแถวแทน (O(n) ต่อครั้ง) โดยเก็บไว้เพียง k รายการต่องาน
+ *
+ * ใช้ภายใต้ล็อกของ Repository
+ */
+class JobRanking {
+
+    static final Comparator<Application> ORDER = Comparator
+            .comparingInt((Application a) -> ApplicationStats.gradeSlot(a.grade))
+            .thenComparing(a -> a.appliedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(a -> a.candidateId);
+
+    private final Supplier<? extends Collection<Application>> source;
+    private final boolean retain;
+    private Map<String, TreeSet<Application>> perJob; // null = ยังไม่สร้าง (หรือไม่เก็บเลยเมื่อ retain = false)
+
+    JobRanking(Supplier<? extends Collection<Application>> source, boolean retain) {
+        this.source = source;
+        this.retain = retain;
+    }
+
+    private Map<String, TreeSet<Application>> built() {
+        if (perJob == null) {
+            perJob = new HashMap<>();
+            for (Application a : source.get()) insert(a);
+        }
+        return perJob;
+    }
+
+    private void insert(Application a) {
+        perJob.computeIfAbsent(a.jobId, k -> new TreeSet<>(ORDER)).add(a);
+    }
+
+    /** k ใบสมัครแรกของงานตามลำดับเกรด → เวลาสมัคร */
+    List<Application> top(String jobId, int k) {
+        if (!retain) return scan(jobId, k).getOrDefault(jobId, new ArrayList<>());
+        TreeSet<Application> set = built().get(jobId);
+        List<Application> out = new ArrayList<>(Math.max(0, Math.min(k, set == null ? 0 : set.size())));
+        if (set == null) return out;
+        for (Application a : set) {
+            if (out.size() >= k) break;
+            out.add(a);
+        }
+        return out;
+    }
+
+    /** k ใบสมัครแรกของทุกงาน (jobId → รายการ) — โหมด mmap ไล่ไฟล์รอบเดียวสำหรับทุกงาน */
+    Map<String, List<Application>> topPerJob(int k) {
+        if (!retain) return scan(null, k);
+        Map<String, List<Application>> out = new HashMap<>();
+        for (String jobId : built().keySet()) out.put(jobId, top(jobId, k));
+        return out;
+    }
+
+    // ไล่ source รอบเดียว เก็บ k รายการที่ดีที่สุดต่องานด้วย heap ขนาด k (jobId = null → ทุกงาน)
+    private Map<String, List<Application>> scan(String jobId, int k) {
+        Map<String, PriorityQueue<Application>> best = new HashMap<>();
+        if (k <= 0) return new HashMap<>();
+        for (Application a : source.get()) {
+            if (jobId != null && !jobId.equals(a.jobId)) continue;
+            // heap กลับลำดับ: หัวคือรายการที่แย่ที่สุดใน k รายการ
+            PriorityQueue<Application> q = best.computeIfAbsent(a.jobId, j -> new PriorityQueue<>(ORDER.reversed()));
+            if (q.size() < k) q.add(a);
+            else if (ORDER.compare(a, q.peek()) < 0) {
+                q.poll();
+                q.add(a);
+            }
+        }
+        Map<String, List<Application>> out = new HashMap<>();
+        for (Map.Entry<String, PriorityQueue<Application>> e : best.entrySet()) {
+            List<Application> list = new ArrayList<>(e.getValue());
+            list.sort(ORDER);
+            out.put(e.getKey(), list);
+        }
+        return out;
+    }
+
+    // ===== อัปเดตแบบ incremental (ถ้ายังไม่สร้าง ไม่ต้องทำอะไร — ตอนสร้างจะอ่านค่าล่าสุดเอง) =====
+
+    void add(Application a) {
+        if (retain && perJob != null) insert(a);
+    }
+
+    /** เรียกก่อนแก้ a.grade (ลบด้วยค่าเกรดเดิม) */
+    void remove(Application a) {
+        if (perJob == null) return;
+        TreeSet<Application> set = perJob.get(a.jobId);
+        if (set != null) set.remove(a);
+    }
+
+    /** ทิ้งทั้งหมด (เช่น follower รับ snapshot ใหม่) แล้วค่อยสร้างใหม่ตอนถูกถาม */
+    void reset() {
+        perJob = null;
+    }
+}
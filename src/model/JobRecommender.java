@@ -0,0 +1,110 @@
+package model;
+
+import java.util.*;
+
+/**
+ * JobRecommender: จัดอันดับงานที่เหมาะกับผู้สมัคร จากความคล้ายของข้อความงาน
+ *
+ * - ตอนโหลด: แปลง title + description ของทุกงานเป็นเวกเตอร์ (feature hashing, DIM มิติ)
+ *   เก็บต่อกันใน float[] เดียว แถวละงาน และทำ L2 normalize ไว้แล้ว
+ * - โปรไฟล์ผู้สมัคร: ผลรวมเวกเตอร์ของงานที่เคยสมัคร ถ่วงน้ำหนักตามเกรดที่ได้ (A มากสุด)
+ * - คะแนน = cosine similarity (dot product ของเวกเตอร์ที่ normalize แล้ว)
+ * - เลือก top-k ด้วย min-heap ขนาด k → O(n log k) ไม่ต้องเรียงทั้งหมด
+ */
+public class JobRecommender {
+
+    // จำนวนมิติของเวกเตอร์ (ยิ่งมากยิ่งชนกันน้อย แต่ใช้หน่วยความจำมากขึ้น)
+    static final int DIM = 256;
+
+    private final float[] matrix;                   // jobs × DIM
+    private final Map<String, Integer> rowOf = new HashMap<>();
+
+    JobRecommender(Collection<Job> jobs) {
+        matrix = new float[jobs.size() * DIM];
+        int row = 0;
+        for (Job j : jobs) {
+            rowOf.put(j.id, row);
+            embed(j.title + " " + j.description, matrix, row * DIM);
+            row++;
+        }
+    }
+
+    // แปลงข้อความเป็นเวกเตอร์: นับคำ (ตัวพิมพ์เล็ก, ตัดด้วยอักขระที่ไม่ใช่ตัวอักษร/ตัวเลข) ลงช่องตาม hash
+    private static void embed(String text, float[] out, int off) {
+        String[] tokens = text.toLowerCase().split("[^\\p{L}\\p{N}]+");
+        for (String t : tokens) {
+            if (t.length() < 2) continue;
+            int h = t.hashCode() * 0x9E3779B9;
+            int slot = (h >>> 1) % DIM;
+            out[off + slot] += (h & 1) == 0 ? 1f : -1f; // เครื่องหมายจาก hash ลดผลของการชนกัน
+        }
+        normalize(out, off);
+    }
+
+    private static void normalize(float[] v, int off) {
+        double sum = 0;
+        for (int i = 0; i < DIM; i++) sum += v[off + i] * v[off + i];
+        if (sum == 0) return;
+        float inv = (float) (1 / Math.sqrt(sum));
+        for (int i = 0; i < DIM; i++) v[off + i] *= inv;
+    }
+
+    // น้ำหนักตามเกรด: งานที่ทำได้ดีมีผลต่อโปรไฟล์มากกว่า (ยังไม่ให้เกรด = กลาง ๆ)
+    private static float gradeWeight(String grade) {
+        switch (grade == null ? "" : grade) {
+            case "A": return 1.0f;
+            case "B": return 0.8f;
+            case "C": return 0.6f;
+            case "D": return 0.4f;
+            case "F": return 0.1f;
+            default:  return 0.5f;
+        }
+    }
+
+    /** สร้างโปรไฟล์จากประวัติการสมัคร (คืน null ถ้ายังไม่มีประวัติที่ใช้ได้) */
+    float[] profile(List<Application> history) {
+        float[] p = new float[DIM];
+        boolean any = false;
+        for (Application a : history) {
+            Integer row = rowOf.get(a.jobId);
+            if (row == null) continue;
+            float w = gradeWeight(a.grade);
+            int off = row * DIM;
+            for (int i = 0; i < DIM; i++) p[i] += w * matrix[off + i];
+            any = true;
+        }
+        if (!any) return null;
+        normalize(p, 0);
+        return p;
+    }
+
+    /** เลือก k งานที่คะแนนสูงสุดจาก candidates (เรียงจากมากไปน้อย, ข้ามงานที่คะแนน ≤ 0) */
+    List<Job> topK(float[] profile, List<Job> candidates, int k) {
+        if (profile == null || k <= 0) return new ArrayList<>();
+        // min-heap: หัว heap คืองานที่คะแนนต่ำสุดใน k อันดับตอนนี้
+        PriorityQueue<Scored> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(e -> e.score));
+        for (Job j : candidates) {
+            Integer row = rowOf.get(j.id);
+            if (row == null) continue;
+            float score = 0;
+            int off = row * DIM;
+            for (int i = 0; i < DIM; i++) score += profile[i] * matrix[off + i];
+            if (score <= 0) continue;
+            if (heap.size() < k) {
+                heap.add(new Scored(j, score));
+            } else if (score > heap.peek().score) {
+                heap.poll();
+                heap.add(new Scored(j, score));
+            }
+        }
+        Job[] out = new Job[heap.size()];
+        for (int i = out.length - 1; i >= 0; i--) out[i] = heap.poll().job;
+        return new ArrayList<>(Arrays.asList(out));
+    }
+
+    private static final class Scored {
+        final Job job;
+        final float score;
+        Scored(Job job, float score) { this.job = job; this.score = score; }
+    }
+}
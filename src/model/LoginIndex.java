@@ -0,0 +1,137 @@
+package model;
+
+/**
+ * LoginIndex: ดัชนีอีเมลสำหรับ login รวม student และ admin ไว้ในตารางเดียว
+ *
+ * - hash table แบบ open addressing (linear probing) บน array ล้วน
+ *   เก็บ hash 32 บิต + อีเมลตัวพิมพ์เล็ก + candidate_id + บิตบทบาท
+ * - มี Bloom filter ด้านหน้า: อีเมลที่ไม่มีในระบบ (กรณีพบบ่อยตอนพิมพ์ผิด) ตอบ false ได้ทันที
+ *   โดยไม่ต้อง probe ตารางหรือเทียบ String
+ * - ใช้ภายใน Repository เท่านั้น (ผู้เรียกต้องส่งอีเมลตัวพิมพ์เล็กมา)
+ */
+class LoginIndex {
+
+    static final byte CANDIDATE = 1;
+    static final byte ADMIN = 2;
+
+    private static final int BLOOM_HASHES = 3;
+
+    private int[] hashes = new int[16];
+    private String[] keys = new String[16];
+    private String[] candidateIds = new String[16];
+    private byte[] roles = new byte[16];
+    private int size;
+
+    // Bloom filter: 8 บิตต่อช่องของตาราง (load factor ≤ 0.5 → ≥16 บิตต่ออีเมล, false positive ราว 0.5%)
+    private long[] bloom = new long[2];
+
+    void addCandidate(String emailLower, String candidateId) {
+        int slot = put(emailLower);
+        roles[slot] |= CANDIDATE;
+        candidateIds[slot] = candidateId;
+    }
+
+    void addAdmin(String emailLower) {
+        int slot = put(emailLower);
+        roles[slot] |= ADMIN;
+    }
+
+    boolean isCandidate(String emailLower) { return (roleOf(emailLower) & CANDIDATE) != 0; }
+    boolean isAdmin(String emailLower)     { return (roleOf(emailLower) & ADMIN) != 0; }
+
+    /** คืน candidate_id ของอีเมล หรือ null ถ้าไม่ใช่ student */
+    String candidateId(String emailLower) {
+        int slot = find(emailLower);
+        return slot < 0 ? null : candidateIds[slot];
+    }
+
+    int size() { return size; }
+
+    // ===== ภายใน =====
+
+    private byte roleOf(String emailLower) {
+        int slot = find(emailLower);
+        return slot < 0 ? 0 : roles[slot];
+    }
+
+    private int find(String key) {
+        if (key == null) return -1;
+        long h = hash64(key);
+        if (!bloomMightContain(h)) return -1;
+        int h32 = (int) h, mask = keys.length - 1;
+        for (int i = h32 & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == h32 && keys[i].equals(key)) return i;
+        }
+        return -1;
+    }
+
+    // เพิ่ม (หรือหาช่องเดิม) แล้วคืน index ของช่อง
+    private int put(String key) {
+        if ((size + 1) * 2 > keys.length) grow();
+        long h = hash64(key);
+        int h32 = (int) h, mask = keys.length - 1;
+        int i = h32 & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == h32 && keys[i].equals(key)) return i;
+        }
+        keys[i] = key;
+        hashes[i] = h32;
+        bloomAdd(h);
+        size++;
+        return i;
+    }
+
+    // ขยายตาราง 2 เท่า แล้ว rehash ทั้งตารางและ Bloom filter
+    private void grow() {
+        int[] oldHashes = hashes;
+        String[] oldKeys = keys, oldIds = candidateIds;
+        byte[] oldRoles = roles;
+        int cap = keys.length * 2, mask = cap - 1;
+        hashes = new int[cap];
+        keys = new String[cap];
+        candidateIds = new String[cap];
+        roles = new byte[cap];
+        bloom = new long[cap / 8];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) continue;
+            int i = oldHashes[j] & mask;
+            while (keys[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            hashes[i] = oldHashes[j];
+            candidateIds[i] = oldIds[j];
+            roles[i] = oldRoles[j];
+            bloomAdd(hash64(oldKeys[j]));
+        }
+    }
+
+    private void bloomAdd(long h) {
+        int bits = bloom.length * 64;
+        int h1 = (int) h, h2 = (int) (h >>> 32);
+        for (int k = 0; k < BLOOM_HASHES; k++) {
+            int bit = ((h1 + k * h2) & 0x7fffffff) % bits;
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean bloomMightContain(long h) {
+        int bits = bloom.length * 64;
+        int h1 = (int) h, h2 = (int) (h >>> 32);
+        for (int k = 0; k < BLOOM_HASHES; k++) {
+            int bit = ((h1 + k * h2) & 0x7fffffff) % bits;
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // ขยาย String.hashCode() (ถูก cache ไว้ใน String และคำนวณเร็ว) เป็น 64 บิตด้วย murmur finalizer
+    // ให้ครึ่งบน/ล่างเป็นอิสระต่อกันพอใช้กับ Bloom filter และกระจายช่องของ linear probing ได้ดี
+    static long hash64(String s) {
+        long h = s.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,472 @@
+package model;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * MappedApplications: อ่าน applications.csv ผ่าน memory-mapped file แทนการแปลงทุกแถวเป็น Application บน heap
+ *
+ * - เก็บเฉพาะดัชนี: แถว → byte offset (long[]) และ (jobId, candidateId) → แถว (open addressing, int[])
+ * - map ไฟล์เป็นก้อนละไม่เกิน 1 GiB โดยตัดก้อนที่ขึ้นบรรทัดใหม่ (แถวหนึ่งไม่คร่อมสองก้อน)
+ * - แปลงแถวเป็น Application เมื่อถูกเรียกใช้เท่านั้น (เช่น ตารางแอดมินวาดแถวนั้น หรือ saveGrade หาแถวนั้น)
+ * - แถวที่ถูก find() จะถูกเก็บไว้ใน overrides ของ State เพื่อให้การแก้เกรดในหน่วยความจำมีผล
+ * - saveGrade: ไม่เขียนไฟล์หลักใหม่ แต่ต่อท้าย "jobId,candidateId,grade" ที่ applications.csv.grades
+ *   (ตอน load จะ replay เข้า overrides) เมื่อค้างครบ COMPACT_AFTER บรรทัดจึง rewrite() รวมเข้าไฟล์หลัก
+ * - append: เขียนต่อท้ายไฟล์แล้ว map ส่วนท้ายเพิ่ม
+ * - การแทนไฟล์หลัก (rewrite / replaceWith) เขียน .tmp แล้ว move ทับ; Java ไม่มีวิธี unmap ที่ปลอดภัย
+ *   และ LazyList ที่หน้าจอถืออยู่ยังอ้าง buffer เดิม บน Windows การ move ทับไฟล์ที่ยัง map อยู่จึงอาจล้มเหลว
+ *   → rewrite() เลื่อนไปทำตอนเปิดโปรแกรมครั้งถัดไป (open() รวม .grades ก่อน map ไฟล์)
+ *
+ * ผู้อ่าน (เช่น EDT) อ่านจาก State ล่าสุดโดยไม่ต้องล็อก ส่วนการเขียนทำภายใต้ล็อกของ Repository
+ */
+class MappedApplications {
+
+    static final long MAX_CHUNK = 1L << 30; // 1 GiB
+    // จำนวนเกรดที่ค้างใน .grades ก่อนรวมเข้าไฟล์หลัก
+    static final int COMPACT_AFTER = 10_000;
+
+    // ภาพรวมของ mapping ณ เวลาหนึ่ง (เปลี่ยนทั้งก้อนเมื่อ append/rewrite)
+    private static final class State {
+        final MappedByteBuffer[] chunks;
+        final long[] chunkStart;
+        final long[] offsets;   // อาจยาวกว่า rows (เผื่อ append) — อ่านเฉพาะ [0, rows)
+        final int rows;
+        // แถว → Application ที่ถูก find() (แก้เกรดได้) — ผูกกับ mapping นี้ เพราะเลขแถวเปลี่ยนเมื่อ map ไฟล์ใหม่
+        final Map<Integer, Application> overrides;
+
+        State(MappedByteBuffer[] chunks, long[] chunkStart, long[] offsets, int rows, Map<Integer, Application> overrides) {
+            this.chunks = chunks;
+            this.chunkStart = chunkStart;
+            this.offsets = offsets;
+            this.rows = rows;
+            this.overrides = overrides;
+        }
+    }
+
+    private final Path file;
+    private final Path grades;         // applications.csv.grades (เกรดที่ยังไม่รวมเข้าไฟล์หลัก)
+    private int pendingGrades;
+    private boolean compactDeferred;   // move ทับไฟล์ไม่สำเร็จ → รอรวมตอนเปิดครั้งถัดไป
+    private volatile State state = new State(new MappedByteBuffer[0], new long[0], new long[0], 0, new ConcurrentHashMap<>());
+
+    private int[] table = new int[16]; // เก็บ row + 1 (0 = ช่องว่าง)
+    private boolean hasGrade = true;   // ไฟล์เดิมอาจเป็นแบบ 3 คอลัมน์
+    private boolean endsWithNewline = true;
+    private long fileSize;
+
+    MappedApplications(Path file) {
+        this.file = file;
+        this.grades = file.resolveSibling(file.getFileName() + ".grades");
+    }
+
+    /** เปิดตอนเริ่มโปรแกรม: รวมเกรดที่ค้างใน .grades เข้าไฟล์หลักก่อน (ตอนนี้ยังไม่มีใคร map ไฟล์) แล้ว map */
+    void open() throws IOException {
+        if (Files.exists(grades)) compactOnDisk();
+        load();
+    }
+
+    // ===== โหลด / สร้างดัชนี =====
+
+    /** map ไฟล์ทั้งไฟล์และสร้างดัชนีใหม่ (ไม่แปลงแถวเป็น Application) */
+    void load() throws IOException {
+        Profiling.time(new Profiling.CsvLoad(), "csv-load", this::map);
+    }
+
+    private void map(Profiling.CsvLoad ev) throws IOException {
+        ev.file = file.getFileName().toString();
+        List<MappedByteBuffer> chunks = new ArrayList<>();
+        List<Long> starts = new ArrayList<>();
+        long[] offsets = new long[1024];
+        int rows = 0;
+        boolean header = true;
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            fileSize = ch.size();
+            long start = 0;
+            while (start < fileSize) {
+                long len = Math.min(MAX_CHUNK, fileSize - start);
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, start, len);
+                int end = (int) len;
+                if (start + len < fileSize) {
+                    // ตัดก้อนที่ '\n' ตัวสุดท้าย แล้ว map ใหม่ให้พอดีขอบบรรทัด
+                    while (end > 0 && buf.get(end - 1) != '\n') end--;
+                    if (end == 0) throw new IOException("Row longer than " + MAX_CHUNK + " bytes in " + file);
+                    buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end);
+                }
+                chunks.add(buf);
+                starts.add(start);
+
+                int pos = 0;
+                while (pos < end) {
+                    int eol = pos;
+                    while (eol < end && buf.get(eol) != '\n') eol++;
+                    int contentEnd = (eol > pos && buf.get(eol - 1) == '\r') ? eol - 1 : eol;
+                    if (header) {
+                        // ตรวจจากหัวบรรทัดแรกว่ามีคอลัมน์ grade ไหม
+                        hasGrade = decodeLine(buf, pos, contentEnd).toLowerCase().contains("grade");
+                        header = false;
+                    } else if (contentEnd > pos) {
+                        if (rows == offsets.length) offsets = Arrays.copyOf(offsets, rows * 2);
+                        offsets[rows++] = start + pos;
+                    }
+                    pos = eol + 1;
+                }
+                start += end;
+            }
+            endsWithNewline = fileSize == 0 || lastByte(chunks) == '\n';
+        }
+
+        state = new State(chunks.toArray(new MappedByteBuffer[0]),
+                starts.stream().mapToLong(Long::longValue).toArray(), offsets, rows, new ConcurrentHashMap<>());
+        rebuildTable(state);
+        replayGrades();
+
+        ev.rows = rows;
+        ev.bytes = fileSize;
+    }
+
+    // ใส่เกรดจาก .grades ลง overrides (กรณีรวมเข้าไฟล์หลักไม่สำเร็จ)
+    private void replayGrades() throws IOException {
+        pendingGrades = 0;
+        if (!Files.exists(grades)) return;
+        for (String line : Files.readAllLines(grades, StandardCharsets.UTF_8)) {
+            String[] p = line.split(",", -1);
+            if (p.length < 3) continue;
+            Application a = find(p[0], p[1]);
+            if (a != null) a.grade = p[2];
+            pendingGrades++;
+        }
+    }
+
+    // รวม .grades เข้าไฟล์หลักแบบ stream (อ่านทีละบรรทัด ไม่ map) แล้วลบ .grades
+    private void compactOnDisk() throws IOException {
+        Map<String, String> latest = new HashMap<>();
+        for (String line : Files.readAllLines(grades, StandardCharsets.UTF_8)) {
+            int c = line.lastIndexOf(',');
+            if (c > 0) latest.put(line.substring(0, c), line.substring(c + 1));
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             BufferedWriter bw = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            String header = br.readLine();
+            boolean withGrade = header != null && header.toLowerCase().contains("grade");
+            bw.write(ApplicationStore.HEADER);
+            bw.newLine();
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isBlank()) continue;
+                String[] p = line.trim().split(",", -1);
+                String g = latest.getOrDefault(p[0] + "," + (p.length > 1 ? p[1] : ""),
+                        withGrade && p.length > 3 ? p[3] : "");
+                bw.write(p[0] + "," + (p.length > 1 ? p[1] : "") + "," + (p.length > 2 ? p[2] : "") + "," + g);
+                bw.newLine();
+            }
+        }
+        if (!replaceFile(tmp)) throw new IOException("Cannot replace " + file + " with compacted grades");
+        Files.deleteIfExists(grades);
+    }
+
+    private static byte lastByte(List<MappedByteBuffer> chunks) {
+        MappedByteBuffer last = chunks.get(chunks.size() - 1);
+        return last.get(last.limit() - 1);
+    }
+
+    // ===== ตาราง (jobId, candidateId) → แถว =====
+
+    private void rebuildTable(State st) {
+        int cap = 16;
+        while (cap < st.rows * 2) cap <<= 1;
+        table = new int[cap];
+        for (int r = 0; r < st.rows; r++) insert(st, r);
+    }
+
+    private void insert(State st, int row) {
+        if ((row + 1) * 2 > table.length) {
+            // ขยายตาราง (ให้ load factor ≤ 0.5)
+            int[] old = table;
+            table = new int[old.length * 2];
+            for (int v : old) if (v != 0) place(keyHash(st, v - 1), v - 1);
+        }
+        place(keyHash(st, row), row);
+    }
+
+    private void place(int hash, int row) {
+        int mask = table.length - 1;
+        int i = hash & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = row + 1;
+    }
+
+    // hash ของ byte "jobId,candidateId" (สองคอลัมน์แรกของแถว) แบบ FNV-1a
+    private static int keyHash(State st, int row) {
+        int c = chunkOf(st, row);
+        MappedByteBuffer buf = st.chunks[c];
+        int pos = (int) (st.offsets[row] - st.chunkStart[c]);
+        int h = 0x811C9DC5, commas = 0;
+        for (; pos < buf.limit(); pos++) {
+            byte b = buf.get(pos);
+            if (b == '\n' || b == '\r' || (b == ',' && ++commas == 2)) break;
+            h = (h ^ (b & 0xFF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int keyHash(String jobId, String candidateId) {
+        int h = 0x811C9DC5;
+        for (byte b : (jobId + "," + candidateId).getBytes(StandardCharsets.UTF_8)) h = (h ^ (b & 0xFF)) * 0x01000193;
+        return h ^ (h >>> 16);
+    }
+
+    // ===== อ่าน =====
+
+    int size() { return state.rows; }
+
+    /** ใบสมัครแถวที่ row (แปลงจากไฟล์ตอนเรียก ยกเว้นแถวที่อยู่ใน overrides) */
+    Application get(int row) { return get(state, row); }
+
+    private Application get(State st, int row) {
+        Application o = st.overrides.get(row);
+        return o != null ? o : decode(st, row);
+    }
+
+    /** หาใบสมัครจาก (jobId, candidateId) — ผลลัพธ์ถูกเก็บไว้ใน overrides เพื่อให้แก้เกรดได้ */
+    Application find(String jobId, String candidateId) {
+        State st = state;
+        int mask = table.length - 1;
+        for (int i = keyHash(jobId, candidateId) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int row = table[i] - 1;
+            Application a = get(st, row);
+            if (a.jobId.equals(jobId) && a.candidateId.equals(candidateId)) {
+                st.overrides.putIfAbsent(row, a);
+                return st.overrides.get(row);
+            }
+        }
+        return null;
+    }
+
+    /** รายการแบบ lazy (ตามลำดับในไฟล์) — แปลงแถวเมื่อ get(i) เท่านั้น */
+    List<Application> all() {
+        State st = state;
+        return new LazyList(st);
+    }
+
+    private final class LazyList extends AbstractList<Application> implements RandomAccess {
+        private final State st;
+        LazyList(State st) { this.st = st; }
+        @Override public Application get(int i) {
+            Objects.checkIndex(i, st.rows);
+            return MappedApplications.this.get(st, i);
+        }
+        @Override public int size() { return st.rows; }
+    }
+
+    /** ใบสมัครของผู้สมัครคนหนึ่ง: เทียบ byte คอลัมน์ที่ 2 ก่อน แล้วแปลงเฉพาะแถวที่ตรง */
+    List<Application> ofCandidate(String candidateId) {
+        State st = state;
+        byte[] want = candidateId.getBytes(StandardCharsets.UTF_8);
+        List<Application> out = new ArrayList<>();
+        for (int r = 0; r < st.rows; r++) {
+            if (secondColumnEquals(st, r, want)) out.add(get(st, r));
+        }
+        return out;
+    }
+
+    /**
+     * ใบสมัครของงานใน jobIds แบบ lazy บน mapping ณ ตอนเรียก (ไล่นอกล็อกได้)
+     * เทียบ byte คอลัมน์แรกก่อน แล้วแปลงเฉพาะแถวที่ตรง
+     */
+    Iterable<Application> ofJobs(Set<String> jobIds) {
+        State st = state;
+        List<byte[]> want = new ArrayList<>();
+        for (String id : jobIds) want.add(id.getBytes(StandardCharsets.UTF_8));
+        return () -> IntStream.range(0, st.rows)
+                .filter(r -> want.stream().anyMatch(w -> firstColumnEquals(st, r, w)))
+                .mapToObj(r -> get(st, r)).iterator();
+    }
+
+    private static boolean firstColumnEquals(State st, int row, byte[] want) {
+        int c = chunkOf(st, row);
+        MappedByteBuffer buf = st.chunks[c];
+        int pos = (int) (st.offsets[row] - st.chunkStart[c]);
+        int limit = buf.limit();
+        for (byte b : want) {
+            if (pos >= limit || buf.get(pos++) != b) return false;
+        }
+        return pos >= limit || buf.get(pos) == ',' || buf.get(pos) == '\n' || buf.get(pos) == '\r';
+    }
+
+    private static boolean secondColumnEquals(State st, int row, byte[] want) {
+        int c = chunkOf(st, row);
+        MappedByteBuffer buf = st.chunks[c];
+        int pos = (int) (st.offsets[row] - st.chunkStart[c]);
+        int limit = buf.limit();
+        while (pos < limit && buf.get(pos) != ',') pos++;
+        pos++;
+        for (byte b : want) {
+            if (pos >= limit || buf.get(pos++) != b) return false;
+        }
+        return pos >= limit || buf.get(pos) == ',' || buf.get(pos) == '\n' || buf.get(pos) == '\r';
+    }
+
+    Stream<Application> parallelStream() {
+        State st = state;
+        return IntStream.range(0, st.rows).parallel().mapToObj(r -> get(st, r));
+    }
+
+    private static int chunkOf(State st, int row) {
+        int c = Arrays.binarySearch(st.chunkStart, st.offsets[row]);
+        return c >= 0 ? c : -c - 2;
+    }
+
+    private Application decode(State st, int row) {
+        int c = chunkOf(st, row);
+        MappedByteBuffer buf = st.chunks[c];
+        int pos = (int) (st.offsets[row] - st.chunkStart[c]);
+        int eol = pos;
+        while (eol < buf.limit() && buf.get(eol) != '\n') eol++;
+        if (eol > pos && buf.get(eol - 1) == '\r') eol--;
+
+        String[] parts = decodeLine(buf, pos, eol).split(",", -1); // split แบบง่าย ๆ (เหมือนตอนโหลดแบบเดิม)
+        LocalDateTime ts = (parts.length > 2 && !parts[2].isBlank()) ? LocalDateTime.parse(parts[2]) : null;
+        String grade = (hasGrade && parts.length > 3) ? parts[3] : "";
+        return new Application(parts[0], parts.length > 1 ? parts[1] : "", ts, grade);
+    }
+
+    private static String decodeLine(MappedByteBuffer buf, int from, int to) {
+        byte[] b = new byte[to - from];
+        buf.get(from, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // ===== เขียน =====
+
+    /** ต่อท้ายใบสมัคร 1 แถว แล้ว map ส่วนท้ายที่เพิ่มมา + ใส่ดัชนี — คืนจำนวนไบต์ที่เขียน */
+    int append(Application a) throws IOException {
+        String ts = a.appliedAt == null ? "" : a.appliedAt.toString();
+        String line = a.jobId + "," + a.candidateId + "," + ts + (hasGrade ? "," + a.grade : "") + System.lineSeparator();
+        if (!endsWithNewline) line = System.lineSeparator() + line;
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+
+        State st = state;
+        long rowOffset = fileSize + (endsWithNewline ? 0 : System.lineSeparator().length());
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            java.nio.ByteBuffer src = java.nio.ByteBuffer.wrap(bytes);
+            long pos = fileSize;
+            while (src.hasRemaining()) pos += ch.write(src, pos);
+            fileSize = pos;
+            endsWithNewline = true;
+
+            // map ส่วนท้ายใหม่: ขยายก้อนสุดท้ายถ้ายังไม่เกิน 1 GiB ไม่งั้นเปิดก้อนใหม่
+            MappedByteBuffer[] chunks;
+            long[] starts;
+            int n = st.chunks.length;
+            if (n > 0 && fileSize - st.chunkStart[n - 1] <= MAX_CHUNK) {
+                chunks = st.chunks.clone();
+                starts = st.chunkStart;
+                chunks[n - 1] = ch.map(FileChannel.MapMode.READ_ONLY, starts[n - 1], fileSize - starts[n - 1]);
+            } else {
+                long from = n == 0 ? 0 : st.chunkStart[n - 1] + st.chunks[n - 1].limit();
+                chunks = Arrays.copyOf(st.chunks, n + 1);
+                starts = Arrays.copyOf(st.chunkStart, n + 1);
+                chunks[n] = ch.map(FileChannel.MapMode.READ_ONLY, from, fileSize - from);
+                starts[n] = from;
+            }
+
+            long[] offsets = st.offsets;
+            if (st.rows == offsets.length) offsets = Arrays.copyOf(offsets, Math.max(16, st.rows * 2));
+            offsets[st.rows] = rowOffset;
+            State next = new State(chunks, starts, offsets, st.rows + 1, st.overrides);
+            insert(next, st.rows);
+            state = next;
+        }
+        return bytes.length;
+    }
+
+    /**
+     * บันทึกเกรดของใบสมัคร a (ซึ่งได้จาก find() จึงอยู่ใน overrides แล้ว) โดยต่อท้าย .grades
+     * ครบ COMPACT_AFTER บรรทัดจะ rewrite() รวมเข้าไฟล์หลัก — คืนจำนวนไบต์ที่เขียน
+     */
+    long saveGrade(Application a) throws IOException {
+        byte[] line = (a.jobId + "," + a.candidateId + "," + a.grade + "\n").getBytes(StandardCharsets.UTF_8);
+        Files.write(grades, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        long bytes = line.length;
+        if (++pendingGrades >= COMPACT_AFTER && !compactDeferred) bytes += rewrite();
+        return bytes;
+    }
+
+    /**
+     * เขียนไฟล์ใหม่ทั้งไฟล์แบบ stream (หัว 4 คอลัมน์เสมอ) โดยใช้เกรดจาก overrides
+     * แล้ว map ใหม่ ล้าง overrides และลบ .grades — คืนขนาดไฟล์ใหม่ (0 ถ้าต้องเลื่อนไปทำตอนเปิดครั้งถัดไป)
+     */
+    long rewrite() throws IOException {
+        Path tmp = writeTmp(new LazyList(state));
+        if (!replaceFile(tmp)) {
+            // เกรดยังอยู่ครบใน .grades และ overrides
+            compactDeferred = true;
+            return 0;
+        }
+        Files.deleteIfExists(grades);
+        load();
+        return fileSize;
+    }
+
+    /** แทนเนื้อหาทั้งไฟล์ด้วย rows (ซึ่งมีเกรดล่าสุดแล้ว) แล้ว map ใหม่ — แทนไม่สำเร็จ → IOException */
+    void replaceWith(List<Application> rows) throws IOException {
+        Path tmp = writeTmp(rows);
+        if (!replaceFile(tmp)) throw new IOException("Cannot replace " + file + " while it is still mapped");
+        Files.deleteIfExists(grades);
+        load();
+    }
+
+    /**
+     * ตัดใบสมัครของงานใน jobIds ออก: stream แถวที่เหลือลง .tmp แล้ว move ทับ (เหมือน rewrite)
+     * คืนใบสมัครที่ถูกตัด — แทนไฟล์ไม่สำเร็จ → IOException และไฟล์เดิมไม่ถูกแตะ
+     */
+    List<Application> removeJobs(Set<String> jobIds) throws IOException {
+        State st = state;
+        List<Application> removed = new ArrayList<>();
+        List<Application> all = new LazyList(st);
+        for (Application a : all) if (jobIds.contains(a.jobId)) removed.add(a);
+        if (removed.isEmpty()) return removed;
+
+        // ไล่ทุกแถวแต่ข้ามงานที่ถูกตัด (ไม่สร้างรายการแถวที่เหลือบน heap)
+        Path tmp = writeTmp(() -> all.stream().filter(a -> !jobIds.contains(a.jobId)).iterator());
+        if (!replaceFile(tmp)) throw new IOException("Cannot replace " + file + " while it is still mapped");
+        Files.deleteIfExists(grades);
+        load();
+        return removed;
+    }
+
+    private Path writeTmp(Iterable<Application> rows) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter bw = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            bw.write(ApplicationStore.HEADER);
+            bw.newLine();
+            for (Application a : rows) {
+                String ts = (a.appliedAt == null) ? "" : a.appliedAt.toString();
+                bw.write(a.jobId + "," + a.candidateId + "," + ts + "," + a.grade);
+                bw.newLine();
+            }
+        }
+        return tmp;
+    }
+
+    // move .tmp ทับไฟล์หลัก; ล้มเหลว (เช่น Windows ที่ไฟล์ยังถูก map อยู่) → ลบ .tmp แล้วคืน false
+    private boolean replaceFile(Path tmp) throws IOException {
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (FileSystemException e) {
+            Files.deleteIfExists(tmp);
+            return false;
+        }
+    }
+}
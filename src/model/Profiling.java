@@ -0,0 +1,175 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Profiling: event ของ JDK Flight Recorder + โหมดตรวจการจองหน่วยความจำ (allocation audit)
+ *
+ * JFR: event ด้านล่างเปิดอยู่เสมอ (ต้นทุนต่ำมากเมื่อไม่ได้อัด) — อัดด้วย
+ *   java -XX:StartFlightRecording=filename=jobfair.jfr,settings=profile -jar target/jobfair.jar
+ * แล้วเปิดใน JDK Mission Control หรือ `jfr print --categories "Job Fair" jobfair.jfr`
+ *
+ * Allocation audit (-Djobfair.allocAudit=true): นับจำนวนไบต์ที่ thread จองระหว่างแต่ละงาน
+ * ผ่าน com.sun.management.ThreadMXBean แล้วพิมพ์สรุปตอนปิดโปรแกรม
+ *
+ * ใช้งาน (event + audit คู่กัน, commit/end เสมอแม้งานจะโยน exception):
+ *   Profiling.time(new Profiling.Append(), "append", ev -> {
+ *       ... ทำงาน แล้วเติม field ของ ev ...
+ *   });
+ *   List<X> rows = Profiling.timeValue(new Profiling.CsvLoad(), "csv-load", ev -> { ...; return rows; });
+ */
+public final class Profiling {
+
+    private Profiling() {}
+
+    // ===== JFR events =====
+
+    @Name("jobfair.CsvLoad")
+    @Label("CSV Load")
+    @Category({"Job Fair", "Storage"})
+    @Description("Reading one CSV file at startup")
+    public static class CsvLoad extends Event {
+        @Label("File") public String file;
+        @Label("Rows") public long rows;
+        @Label("Bytes") @DataAmount public long bytes;
+    }
+
+    @Name("jobfair.ApplicationAppend")
+    @Label("Application Append")
+    @Category({"Job Fair", "Storage"})
+    public static class Append extends Event {
+        @Label("Job") public String jobId;
+        @Label("Candidate") public String candidateId;
+        @Label("Bytes") @DataAmount public long bytes;
+    }
+
+    @Name("jobfair.GradeSave")
+    @Label("Grade Save")
+    @Category({"Job Fair", "Storage"})
+    @Description("Updating a grade and rewriting the applications file")
+    public static class GradeSave extends Event {
+        @Label("Job") public String jobId;
+        @Label("Candidate") public String candidateId;
+        @Label("Rows") public long rows;
+        @Label("Bytes Written") @DataAmount public long bytes;
+    }
+
+    @Name("jobfair.JobRefresh")
+    @Label("Job Refresh")
+    @Category({"Job Fair", "UI"})
+    public static class JobRefresh extends Event {
+        @Label("Sort Key") public String sortKey;
+        @Label("Rows") public long rows;
+    }
+
+    @Name("jobfair.TableRepaint")
+    @Label("Table Repaint")
+    @Category({"Job Fair", "UI"})
+    @Description("Filling a table model (fill) or painting a table (paint)")
+    public static class TableRepaint extends Event {
+        @Label("Table") public String table;
+        @Label("Phase") public String phase;
+        @Label("Rows") public long rows;
+    }
+
+    // ===== จับเวลางาน (event + audit) =====
+
+    /** งานที่ถูกจับเวลา ได้ event ไปเติม field (ไฟล์ จำนวนแถว ฯลฯ) */
+    @FunctionalInterface
+    public interface Body<E extends Event, X extends Exception> { void run(E event) throws X; }
+
+    /** เหมือน Body แต่คืนค่า */
+    @FunctionalInterface
+    public interface ValueBody<E extends Event, T, X extends Exception> { T run(E event) throws X; }
+
+    /**
+     * ทำ body ภายใต้ event (begin → commit) และ audit(op) → end()
+     * commit/end อยู่ใน finally: งานที่ล้มกลางทางก็ยังถูกบันทึก และ audit ไม่ค้าง
+     */
+    public static <E extends Event, X extends Exception> void time(E event, String op, Body<E, X> body) throws X {
+        Audit audit = audit(op);
+        event.begin();
+        try {
+            body.run(event);
+        } finally {
+            event.commit();
+            audit.end();
+        }
+    }
+
+    /** เหมือน time(...) แต่คืนค่าที่ body คืน */
+    public static <E extends Event, T, X extends Exception> T timeValue(E event, String op, ValueBody<E, T, X> body) throws X {
+        Audit audit = audit(op);
+        event.begin();
+        try {
+            return body.run(event);
+        } finally {
+            event.commit();
+            audit.end();
+        }
+    }
+
+    // ===== Allocation audit =====
+
+    private static final boolean AUDIT = Boolean.getBoolean("jobfair.allocAudit");
+    private static final com.sun.management.ThreadMXBean THREADS = AUDIT ? threadBean() : null;
+    private static final Map<String, LongAdder[]> totals = new ConcurrentHashMap<>(); // op → {count, bytes}
+    private static final Audit NONE = new Audit(null, 0);
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        com.sun.management.ThreadMXBean b = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!b.isThreadAllocatedMemorySupported()) {
+            System.err.println("alloc audit: not supported by this JVM");
+            return null;
+        }
+        b.setThreadAllocatedMemoryEnabled(true);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(report()), "alloc-audit-report"));
+        return b;
+    }
+
+    /** เริ่มนับไบต์ที่จองสำหรับงาน op บน thread ปัจจุบัน (ไม่เปิด audit → คืนตัวว่างที่ไม่ทำอะไร) */
+    public static Audit audit(String op) {
+        if (THREADS == null) return NONE;
+        return new Audit(op, THREADS.getCurrentThreadAllocatedBytes());
+    }
+
+    public static final class Audit {
+        private final String op;
+        private final long start;
+
+        private Audit(String op, long start) {
+            this.op = op;
+            this.start = start;
+        }
+
+        /** จบงาน: บวกจำนวนไบต์ที่จองตั้งแต่ audit(op) เข้ากับยอดรวมของ op (ต้องเรียกบน thread เดิม) */
+        public void end() {
+            if (op == null) return;
+            long bytes = THREADS.getCurrentThreadAllocatedBytes() - start;
+            LongAdder[] t = totals.computeIfAbsent(op, k -> new LongAdder[]{ new LongAdder(), new LongAdder() });
+            t[0].increment();
+            t[1].add(bytes);
+        }
+    }
+
+    /** สรุปยอดต่องาน: จำนวนครั้ง, ไบต์รวม, ไบต์เฉลี่ยต่อครั้ง */
+    public static String report() {
+        StringBuilder sb = new StringBuilder(String.format("%-14s %8s %14s %12s%n", "alloc op", "count", "bytes", "avg"));
+        for (Map.Entry<String, LongAdder[]> e : new TreeMap<>(totals).entrySet()) {
+            long n = e.getValue()[0].sum(), b = e.getValue()[1].sum();
+            sb.append(String.format("%-14s %8d %14d %12d%n", e.getKey(), n, b, n == 0 ? 0 : b / n));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package model;
+
+/**
+ * QueueMetrics: ตัวเลขของคิวสมัครงานที่หน้า Dashboard แสดง
+ * - controller.ApplyAdmission เป็นผู้ให้ค่า, view.DashboardView เป็นผู้อ่าน (ทั้งสองฝั่งรู้จักแค่ interface นี้)
+ */
+public interface QueueMetrics {
+    int queueDepth();
+    long accepted();
+    long duplicates();
+    long throttled();
+    long shed();
+}
@@ -0,0 +1,107 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * ReadThroughCache: แคชขนาดจำกัดหน้าที่เก็บข้อมูลที่อ่านจากที่เก็บช้า (เช่น CsvRecordStore)
+ *
+ * - ไม่เจอในแคช → เรียก loader แล้วเก็บผลไว้ (ค่า null = ไม่พบ จะไม่ถูกเก็บ)
+ * - เต็มแล้ว → ทิ้งรายการที่ไม่ได้ใช้นานที่สุด (LRU ด้วย LinkedHashMap แบบ access-order)
+ * - หลาย thread ขอ key เดียวกันที่ยังไม่อยู่ในแคชพร้อมกัน → โหลดจริงครั้งเดียว คนอื่นรอผลเดียวกัน
+ * - นับ hit / miss / load / coalesced / eviction ไว้ดูใน Dashboard
+ */
+public class ReadThroughCache<K, V> {
+
+    private final int capacity;
+    private final Function<K, V> loader;
+    private final Map<K, V> map;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ReadThroughCache(int capacity, Function<K, V> loader) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.capacity = capacity;
+        this.loader = loader;
+        this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= ReadThroughCache.this.capacity) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /** อ่านค่า (จากแคช หรือโหลดจากที่เก็บ) — คืน null ถ้าไม่พบ */
+    public V get(K key) {
+        synchronized (map) {
+            V v = map.get(key);
+            if (v != null) {
+                hits.increment();
+                return v;
+            }
+        }
+        misses.increment();
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            // มีคนกำลังโหลด key นี้อยู่แล้ว → รอผลเดียวกัน
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw e;
+            }
+        }
+
+        try {
+            // คนที่โหลดเสร็จก่อนหน้าอาจใส่ค่าไว้แล้วระหว่างที่เราเช็กแคชกับจอง inFlight → ไม่ต้องโหลดซ้ำ
+            V cached;
+            synchronized (map) { cached = map.get(key); }
+            if (cached != null) {
+                mine.complete(cached);
+                return cached;
+            }
+            loads.increment();
+            V v = loader.apply(key);
+            if (v != null) {
+                synchronized (map) { map.put(key, v); }
+            }
+            mine.complete(v);
+            return v;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // ===== metrics =====
+
+    public int size() { synchronized (map) { return map.size(); } }
+    public int capacity() { return capacity; }
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+    public long loads() { return loads.sum(); }
+    public long coalesced() { return coalesced.sum(); }
+    public long evictions() { return evictions.sum(); }
+
+    /** สัดส่วน hit (0..1) ของการเรียก get ทั้งหมด */
+    public double hitRate() {
+        long h = hits(), total = h + misses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
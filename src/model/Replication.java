@@ -0,0 +1,404 @@
+package model;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replication: ทำสำเนาใบสมัคร/เกรดระหว่างหลายเครื่อง (leader 1 เครื่อง + follower หลายเครื่อง)
+ *
+ * - Leader: เป็นเจ้าของ applications.csv เพียงเครื่องเดียว เปิด socket รอ follower
+ *   ทุกครั้งที่มีการสมัคร/ให้เกรด จะใส่ log ลงคิวขาออกของ follower ทุกตัวตามลำดับเดียวกัน
+ *   แต่ละ follower มีคิวขนาดจำกัด (MAX_LAG บรรทัด) และ thread ส่งของตัวเอง → follower ที่ช้า/ค้าง
+ *   ไม่ทำให้การสมัคร/ให้เกรดบน leader ค้าง ถ้าคิวเต็มจะถูกตัดการเชื่อมต่อ (ต่อใหม่แล้วรับ snapshot ใหม่)
+ * - Follower: ต่อ socket ไปหา leader รับ snapshot ทั้งหมดก่อน แล้วตามอ่าน log ต่อ
+ *   อ่านข้อมูลจากหน่วยความจำของตัวเอง ส่วนการเขียนจะส่งต่อไปให้ leader ทำ แล้วรอคำตอบ
+ * - ยืนยันตัวตนด้วยรหัสลับร่วม (shared secret): leader ส่ง nonce แบบสุ่ม follower ตอบ HMAC-SHA256 ของ nonce
+ *   (รหัสลับไม่ถูกส่งบนสาย แต่ข้อมูลหลังจากนั้นไม่ได้เข้ารหัส — ใช้ในเครือข่ายภายในงานเท่านั้น)
+ *   leader ที่ฟังบน address ที่ไม่ใช่ loopback ต้องกำหนดรหัสลับเสมอ
+ *
+ * โปรโตคอลเป็นข้อความทีละบรรทัด (คั่นด้วยคอมม่า):
+ *   handshake         : leader → HELLO,nonce   follower → AUTH,hmac   (ผิด → leader ตอบ DENIED แล้วปิด)
+ *   leader → follower : S,count | A,job,cand,appliedAt,grade | G,job,cand,grade | R,job,job,... (ย้ายเข้าคลัง)
+ *                       | OK,req | ERR,req,msg
+ *   follower → leader : APPLY,req,job,cand,appliedAt,actor | GRADE,req,job,cand,grade,actor
+ */
+public final class Replication {
+
+    // จำนวนบรรทัดที่ค้างส่งได้ต่อ follower ก่อนถูกตัด / เวลารอ handshake
+    static final int MAX_LAG = 10_000;
+    private static final int HANDSHAKE_TIMEOUT_MS = 5000;
+    // จำนวนการเชื่อมต่อพร้อมกันสูงสุดที่ leader รับ (นับตั้งแต่ก่อน handshake) เกินนี้ปิดทันที
+    static final int MAX_CONNECTIONS = 32;
+
+    private Replication() {}
+
+    // ===== ตัวช่วยแปลงข้อมูล =====
+    static String applyLine(Application a) {
+        return "A," + a.jobId + "," + a.candidateId + "," + (a.appliedAt == null ? "" : a.appliedAt) + "," + a.grade;
+    }
+
+    static Application parseApply(String[] p) {
+        LocalDateTime ts = p[3].isBlank() ? null : LocalDateTime.parse(p[3]);
+        return new Application(p[1], p[2], ts, p.length > 4 ? p[4] : "");
+    }
+
+    // HMAC-SHA256(secret, nonce) เป็นเลขฐาน 16 (ใส่ prefix ให้ key ไม่ว่างแม้ไม่ได้ตั้งรหัสลับ)
+    static String authToken(String secret, String nonce) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(("jobfair:" + secret).getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return hex(mac.doFinal(nonce.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] b) {
+        StringBuilder sb = new StringBuilder(b.length * 2);
+        for (byte x : b) sb.append(String.format("%02x", x));
+        return sb.toString();
+    }
+
+    // การเชื่อมต่อ 1 เส้น: เขียนทีละบรรทัดแบบ thread-safe
+    private static class Link implements Closeable {
+        final Socket socket;
+        final BufferedReader in;
+        final Writer out;
+        Link(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+        synchronized void send(String line) throws IOException {
+            write(line);
+            out.flush();
+        }
+        // เขียนโดยยังไม่ flush (ใช้ส่งทีละชุด)
+        synchronized void write(String line) throws IOException {
+            out.write(line);
+            out.write('\n');
+        }
+        synchronized void flush() throws IOException { out.flush(); }
+        // อ่าน 1 บรรทัด; ปลายทางปิดกลางคัน → EOFException
+        String readRequired() throws IOException {
+            String line = in.readLine();
+            if (line == null) throw new EOFException("Replication peer closed the connection");
+            return line;
+        }
+        @Override public void close() {
+            try { socket.close(); } catch (IOException ignored) { }
+        }
+    }
+
+    private static Thread daemon(String name, Runnable r) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    // ====================================================================
+    /** Leader: เจ้าของ log ของใบสมัคร ส่งต่อทุกการเปลี่ยนแปลงให้ follower */
+    public static class Leader implements Closeable {
+        private final Repository repo;
+        private final ServerSocket server;
+        private final String secret;
+        private final SecureRandom random = new SecureRandom();
+        private final List<Outbox> followers = new CopyOnWriteArrayList<>();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong refused = new AtomicLong();
+        private final Semaphore connections = new Semaphore(MAX_CONNECTIONS);
+
+        Leader(Repository repo, String host, int port, String secret) throws IOException {
+            InetAddress bind = InetAddress.getByName(host);
+            if ((secret == null || secret.isEmpty()) && !bind.isLoopbackAddress()) {
+                throw new IllegalArgumentException("A replication secret is required to listen on " + host);
+            }
+            this.repo = repo;
+            this.secret = secret == null ? "" : secret;
+            this.server = new ServerSocket(port, 50, bind);
+            daemon("replication-accept", this::acceptLoop);
+        }
+
+        public int followerCount() { return followers.size(); }
+
+        /** จำนวน follower ที่ถูกตัดเพราะรับ log ไม่ทัน (คิวขาออกเต็ม) */
+        public long droppedFollowers() { return dropped.get(); }
+
+        /** จำนวนการเชื่อมต่อที่ถูกปิดทันทีเพราะมีครบ MAX_CONNECTIONS แล้ว */
+        public long refusedConnections() { return refused.get(); }
+
+        // แต่ละการเชื่อมต่อใช้ thread ของตัวเอง จึงจำกัดจำนวนไว้ (รวมที่ยังไม่ผ่าน handshake)
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket s = server.accept();
+                    if (!connections.tryAcquire()) {
+                        refused.incrementAndGet();
+                        s.close();
+                        continue;
+                    }
+                    daemon("replication-follower-" + s.getPort(), () -> {
+                        try {
+                            serve(s);
+                        } finally {
+                            connections.release();
+                        }
+                    });
+                } catch (IOException e) {
+                    if (server.isClosed()) return;
+                }
+            }
+        }
+
+        // handshake → snapshot + ลงทะเบียน → อ่านคำขอเขียนที่ follower ส่งต่อมา แล้วทำแทนบนเครื่อง leader
+        private void serve(Socket socket) {
+            Outbox box = null;
+            try (Link link = new Link(socket)) {
+                if (!handshake(link)) return;
+                Outbox b = new Outbox(link);
+                box = b;
+                // สำเนาใบสมัครและลงทะเบียนภายใต้ล็อกของ Repository → ไม่มี log ตกหล่นหรือซ้ำระหว่างนั้น
+                b.snapshot = repo.snapshotForFollower(() -> followers.add(b));
+                daemon("replication-send-" + socket.getPort(), b::sendLoop);
+
+                String line;
+                while ((line = link.in.readLine()) != null) {
+                    String[] p = line.split(",", -1);
+                    String req = p.length > 1 ? p[1] : "";
+                    String reply;
+                    try {
+                        if (p[0].equals("APPLY")) {
+                            repo.applyForFollower(p[2], p[3], LocalDateTime.parse(p[4]), p[5]);
+                        } else if (p[0].equals("GRADE")) {
+                            repo.saveGradeForFollower(p[2], p[3], p[4], p[5]);
+                        } else {
+                            throw new IllegalArgumentException("Unknown request " + p[0]);
+                        }
+                        reply = "OK," + req;
+                    } catch (Exception ex) {
+                        reply = "ERR," + req + "," + String.valueOf(ex.getMessage()).replace('\n', ' ');
+                    }
+                    // คำตอบไปทางคิวเดียวกับ log → follower ได้ข้อมูลก่อนคำตอบ OK เสมอ
+                    if (!offer(b, reply)) return;
+                }
+            } catch (IOException | RuntimeException ignored) {
+                // follower หลุด / ส่งข้อมูลผิดรูปแบบ → ตัดออกจากรายการด้านล่าง
+            } finally {
+                if (box != null) {
+                    followers.remove(box);
+                    box.close();
+                }
+            }
+        }
+
+        private boolean handshake(Link link) throws IOException {
+            byte[] n = new byte[16];
+            random.nextBytes(n);
+            String nonce = hex(n);
+            link.socket.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+            link.send("HELLO," + nonce);
+            String[] p = link.readRequired().split(",", -1);
+            byte[] expected = authToken(secret, nonce).getBytes(StandardCharsets.US_ASCII);
+            if (p.length != 2 || !p[0].equals("AUTH")
+                    || !MessageDigest.isEqual(expected, p[1].getBytes(StandardCharsets.US_ASCII))) {
+                link.send("DENIED");
+                return false;
+            }
+            link.socket.setSoTimeout(0);
+            return true;
+        }
+
+        // ใส่บรรทัดลงคิวของ follower; คิวเต็ม (follower ช้าเกิน MAX_LAG) → ตัดทิ้ง
+        private boolean offer(Outbox b, String line) {
+            if (b.queue.offer(line)) return true;
+            if (followers.remove(b)) dropped.incrementAndGet();
+            b.close();
+            return false;
+        }
+
+        // เรียกจาก Repository ภายใต้ล็อก → ลำดับ log เหมือนกันทุก follower (ไม่บล็อกรอ socket)
+        void publish(String line) {
+            for (Outbox b : followers) offer(b, line);
+        }
+
+        @Override public void close() throws IOException {
+            server.close();
+            for (Outbox b : followers) b.close();
+        }
+    }
+
+    // คิวขาออกของ follower 1 ตัวฝั่ง leader: thread ส่งเขียน snapshot ก่อน แล้วตามด้วยบรรทัดในคิว
+    private static class Outbox implements Closeable {
+        final Link link;
+        final BlockingQueue<String> queue = new ArrayBlockingQueue<>(MAX_LAG);
+        volatile List<Application> snapshot;
+        private volatile boolean closed;
+
+        Outbox(Link link) { this.link = link; }
+
+        void sendLoop() {
+            try {
+                List<Application> snap = snapshot;
+                snapshot = null;
+                link.write("S," + snap.size());
+                for (Application a : snap) link.write(applyLine(a));
+                link.flush();
+
+                List<String> batch = new ArrayList<>();
+                while (!closed) {
+                    String first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    for (String line : batch) link.write(line);
+                    link.flush();
+                    batch.clear();
+                }
+            } catch (IOException | InterruptedException ignored) {
+                // socket ถูกปิด (หลุดหรือถูกตัดเพราะช้า)
+            } finally {
+                close();
+            }
+        }
+
+        @Override public void close() {
+            closed = true;
+            link.close();
+        }
+    }
+
+    // ====================================================================
+    /** Follower: ตามอ่าน log จาก leader และส่งต่อคำขอเขียน */
+    public static class Follower implements Closeable {
+        // เวลารอคำตอบจาก leader / เวลารอก่อนต่อใหม่เมื่อหลุด
+        private static final long REPLY_TIMEOUT_MS = 5000;
+        private static final long RECONNECT_MS = 2000;
+
+        private final Repository repo;
+        private final String host;
+        private final int port;
+        private final String secret;
+        private final AtomicLong nextReq = new AtomicLong();
+        private final Map<String, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+        private volatile Link link;
+        private volatile boolean closed;
+        private String lastError;
+
+        Follower(Repository repo, String host, int port, String secret) {
+            this.repo = repo;
+            this.host = host;
+            this.port = port;
+            this.secret = secret == null ? "" : secret;
+            daemon("replication-tail", this::tailLoop);
+        }
+
+        public boolean isConnected() { return link != null; }
+
+        private void tailLoop() {
+            while (!closed) {
+                try (Link l = new Link(new Socket(host, port))) {
+                    handshake(l);
+                    link = l;
+                    lastError = null;
+                    readStream(l);
+                } catch (IOException | RuntimeException e) {
+                    // ยังต่อ leader ไม่ได้ / หลุด / ข้อมูลผิดรูปแบบ → รอแล้วลองใหม่ (จะได้ snapshot ใหม่ทั้งชุด)
+                    String msg = String.valueOf(e.getMessage());
+                    if (!msg.equals(lastError)) System.err.println("replication: " + msg);
+                    lastError = msg;
+                }
+                link = null;
+                IOException lost = new IOException("Lost connection to replication leader");
+                pending.values().forEach(f -> f.completeExceptionally(lost));
+                pending.clear();
+                if (closed) return;
+                try { Thread.sleep(RECONNECT_MS); } catch (InterruptedException e) { return; }
+            }
+        }
+
+        private void handshake(Link l) throws IOException {
+            l.socket.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+            String[] p = l.readRequired().split(",", -1);
+            if (p.length != 2 || !p[0].equals("HELLO")) throw new IOException("Unexpected greeting from replication leader");
+            l.send("AUTH," + authToken(secret, p[1]));
+            l.socket.setSoTimeout(0);
+        }
+
+        private void readStream(Link l) throws IOException {
+            String line;
+            while ((line = l.in.readLine()) != null) {
+                String[] p = line.split(",", -1);
+                switch (p[0]) {
+                    case "S": {
+                        int n = Integer.parseInt(p[1]);
+                        List<Application> snap = new ArrayList<>(n);
+                        for (int i = 0; i < n; i++) snap.add(parseApply(l.readRequired().split(",", -1)));
+                        repo.replaceWithReplicated(snap);
+                        break;
+                    }
+                    case "A":   repo.applyReplicated(parseApply(p)); break;
+                    case "G":   repo.gradeReplicated(p[1], p[2], p[3]); break;
+                    case "R":   repo.removeReplicated(p); break;
+                    case "OK":  complete(p[1], null); break;
+                    case "ERR": complete(p[1], p.length > 2 ? p[2] : "error"); break;
+                    case "DENIED": throw new IOException("Replication leader rejected the shared secret");
+                    default:    break;
+                }
+            }
+        }
+
+        private void complete(String req, String error) {
+            CompletableFuture<Void> f = pending.remove(req);
+            if (f == null) return;
+            if (error == null) f.complete(null);
+            else f.completeExceptionally(new IOException("Leader rejected: " + error));
+        }
+
+        // ส่งคำขอเขียนไปยัง leader แล้วรอผล (ข้อมูลจริงจะกลับมาทาง log ก่อนคำตอบ OK)
+        private void forward(String kind, String body) throws IOException {
+            Link l = link;
+            if (l == null) throw new IOException("Not connected to replication leader");
+            String req = String.valueOf(nextReq.incrementAndGet());
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            pending.put(req, f);
+            l.send(kind + "," + req + "," + body);
+            try {
+                f.get(REPLY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            } catch (TimeoutException | InterruptedException e) {
+                pending.remove(req);
+                throw new IOException("No reply from replication leader", e);
+            }
+        }
+
+        void forwardApply(String jobId, String candidateId, LocalDateTime when, String actor) throws IOException {
+            forward("APPLY", jobId + "," + candidateId + "," + when + "," + actor);
+        }
+
+        void forwardGrade(String jobId, String candidateId, String grade, String actor) throws IOException {
+            forward("GRADE", jobId + "," + candidateId + "," + (grade == null ? "" : grade) + "," + actor);
+        }
+
+        @Override public void close() {
+            closed = true;
+            Link l = link;
+            if (l != null) l.close();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/** โมดูลของแอป Job Fair (Swing + CSV) */
+module jobfair {
+    requires java.desktop;
+    requires jdk.jfr;        // event ของ Flight Recorder (model.Profiling)
+    requires jdk.management; // com.sun.management.ThreadMXBean สำหรับ allocation audit
+}
@@ -0,0 +1,45 @@
+package tools;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * DatabaseCopy: คัดลอกโฟลเดอร์ database ไปโฟลเดอร์ชั่วคราว และลบทิ้งเมื่อเสร็จ
+ * ใช้ร่วมกันโดยเครื่องมือที่ต้องเขียนข้อมูลโดยไม่แตะของจริง (LoadGenerator, app.TrainingRun, LoginBenchmark)
+ */
+public final class DatabaseCopy {
+
+    private DatabaseCopy() {}
+
+    /** คัดลอก from ทั้งโฟลเดอร์ไปยังโฟลเดอร์ชั่วคราวใหม่ (ชื่อขึ้นต้นด้วย prefix) แล้วคืน path */
+    public static Path toTemp(Path from, String prefix) throws IOException {
+        Path tmp = Files.createTempDirectory(prefix);
+        try {
+            copyDir(from, tmp);
+        } catch (IOException | RuntimeException e) {
+            delete(tmp);
+            throw e;
+        }
+        return tmp;
+    }
+
+    public static void copyDir(Path from, Path to) throws IOException {
+        try (Stream<Path> s = Files.walk(from)) {
+            for (Path p : (Iterable<Path>) s::iterator) {
+                Path target = to.resolve(from.relativize(p).toString());
+                if (Files.isDirectory(p)) Files.createDirectories(target);
+                else Files.copy(p, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /** ลบโฟลเดอร์พร้อมทุกอย่างข้างใน (ไม่มีโฟลเดอร์ → ไม่ทำอะไร) */
+    public static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) s.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package tools;
+
+import controller.ApplyAdmission;
+import model.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LoadGenerator: จำลองโหลดวันงาน (ไม่เปิดหน้าต่าง) โดยเรียก Repository แบบเดียวกับที่ controller เรียก
+ *
+ * - student: ดูรายการงาน (BROWSE) แล้วสมัคร (APPLY) ตามสัดส่วนที่กำหนด
+ *   การสมัครผ่าน ApplyAdmission ตั้งค่าเดียวกับ controller (reserveSlot → submit → รอเขียนเสร็จ)
+ *   จึงรวมเวลารอคิว และนับคำขอที่ถูก THROTTLED / SHED / DUPLICATE (และที่ไม่ผ่านด้วยเหตุอื่น) เป็น rejected
+ * - admin  : ดูรายการใบสมัคร (LIST) หรือให้เกรด (GRADE)
+ * - ทุกคนเว้นช่วงคิด (think time) แบบสุ่ม 0..2×thinkMs ระหว่างคำสั่ง
+ * - สรุป throughput และ latency (p50 / p90 / p99 / max) แยกตามชนิดคำสั่ง
+ * - ทำงานบนสำเนาของโฟลเดอร์ database ในโฟลเดอร์ชั่วคราว (ไม่แตะข้อมูลจริง)
+ *   ด้วยโหมดการเก็บข้อมูลเดียวกับ app.Main (-Djobfair.shardBy / jobfair.mmap / jobfair.remote ...)
+ *
+ * ใช้งาน:
+ *   java -cp target/jobfair.jar tools.LoadGenerator [seconds]
+ *   java -cp target/jobfair.jar tools.LoadGenerator replay <trace.jsonl> [speed]
+ *
+ * ตัวเลือก (-D):
+ *   jobfair.db=database              โฟลเดอร์ต้นฉบับที่จะคัดลอก
+ *   jobfair.load.students=20         จำนวน student พร้อมกัน
+ *   jobfair.load.admins=2            จำนวน admin พร้อมกัน
+ *   jobfair.load.thinkMs=200         think time เฉลี่ย (ms)
+ *   jobfair.load.applyRatio=0.3      โอกาสที่ student จะสมัครหลังดูรายการงาน
+ *   jobfair.load.gradeRatio=0.5      โอกาสที่ admin จะให้เกรดแทนการดูรายการ
+ *   jobfair.load.record=trace.jsonl  บันทึกคำสั่งที่ยิงเป็น trace (JSON Lines) ไว้ replay ภายหลัง
+ *
+ * trace 1 บรรทัดต่อ 1 คำสั่งที่ยิง (รวมที่ถูกปฏิเสธ):
+ *   {"t":<ms ตั้งแต่เริ่ม>,"op":"APPLY","job":"...","cand":"...","grade":"","outcome":"OK"}
+ *   outcome: OK หรือเหตุที่ไม่ผ่าน (THROTTLED / SHED / DUPLICATE / FULL / INELIGIBLE / ALREADY_APPLIED / INVALID / FAILED)
+ * เก็บไว้ในหน่วยความจำแล้วเขียนตอนจบ เรียงตามเวลาเริ่มคำสั่ง (t) เพื่อให้ replay ยิงตามลำดับเวลาจริง
+ * replay จะยิงทุกคำสั่งตามเวลาเดิม (หารด้วย speed) ไม่ว่าผลเดิมเป็นอะไร โดยใช้ worker เท่ากับ students + admins
+ * แล้วนับจำนวนคำสั่งที่ได้ผลต่างจากใน trace
+ */
+public class LoadGenerator {
+
+    private static final String[] GRADES = {"A", "B", "C", "D", "F"};
+
+    private final Repository repo;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> rejected = new ConcurrentHashMap<>(); // "APPLY/THROTTLED" → จำนวน
+    private final AtomicLong outcomeChanged = new AtomicLong(); // replay: ผลไม่ตรงกับใน trace
+    private final Set<String> applied = ConcurrentHashMap.newKeySet(); // "jobId|candId" ที่สมัครแล้ว
+    // ค่าเดียวกับ JobFairController
+    private final ApplyAdmission admission = new ApplyAdmission(64, 3, 5000);
+    private final List<TraceLine> trace; // null = ไม่บันทึก
+
+    // คำสั่ง 1 รายการใน trace (เรียงตามเวลาเริ่มก่อนเขียน)
+    private static class TraceLine {
+        final long startedAt;
+        final String json;
+        TraceLine(long startedAt, String json) {
+            this.startedAt = startedAt;
+            this.json = json;
+        }
+    }
+
+    private LoadGenerator(Repository repo, boolean record) {
+        this.repo = repo;
+        this.trace = record ? Collections.synchronizedList(new ArrayList<>()) : null;
+        for (Application a : repo.getAllApplications()) applied.add(a.jobId + "|" + a.candidateId);
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean replay = args.length > 0 && args[0].equals("replay");
+        int students = Integer.getInteger("jobfair.load.students", 20);
+        int admins = Integer.getInteger("jobfair.load.admins", 2);
+
+        String record = replay ? null : System.getProperty("jobfair.load.record");
+        Path tmp = DatabaseCopy.toTemp(Paths.get(System.getProperty("jobfair.db", "database")), "jobfair-load");
+        try (Repository repo = new Repository(tmp.toString(), Repository.Options.fromSystemProperties())) {
+            LoadGenerator gen = new LoadGenerator(repo, record != null);
+
+            long t0 = System.nanoTime();
+            if (replay) {
+                if (args.length < 2) throw new IllegalArgumentException("usage: replay <trace.jsonl> [speed]");
+                double speed = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+                gen.replay(Paths.get(args[1]), speed, Math.max(1, students + admins));
+            } else {
+                int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+                gen.run(students, admins, seconds);
+            }
+            gen.report((System.nanoTime() - t0) / 1e9);
+            if (record != null) gen.writeTrace(Paths.get(record));
+        } finally {
+            DatabaseCopy.delete(tmp);
+        }
+    }
+
+    // ===== โหลดสังเคราะห์ =====
+
+    private void run(int students, int admins, int seconds) throws InterruptedException {
+        long thinkMs = Long.getLong("jobfair.load.thinkMs", 200);
+        double applyRatio = Double.parseDouble(System.getProperty("jobfair.load.applyRatio", "0.3"));
+        double gradeRatio = Double.parseDouble(System.getProperty("jobfair.load.gradeRatio", "0.5"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Candidate> candidates = repo.getCandidates(students); // ผ่านแคชในโหมด remote (ไม่ไล่ทั้งไฟล์)
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < students && !candidates.isEmpty(); i++) {
+            Candidate me = candidates.get(i % candidates.size());
+            threads.add(new Thread(() -> {
+                Random rnd = new Random();
+                while (System.nanoTime() < deadline) {
+                    List<Job> jobs = browse();
+                    think(rnd, thinkMs);
+                    if (rnd.nextDouble() < applyRatio) {
+                        List<Job> open = new ArrayList<>();
+                        for (Job j : jobs) if (!applied.contains(j.id + "|" + me.id) && repo.canApply(me, j)) open.add(j);
+                        if (!open.isEmpty()) apply(open.get(rnd.nextInt(open.size())).id, me.id);
+                        think(rnd, thinkMs);
+                    }
+                }
+            }, "student-" + i));
+        }
+        for (int i = 0; i < admins; i++) {
+            threads.add(new Thread(() -> {
+                Random rnd = new Random();
+                while (System.nanoTime() < deadline) {
+                    List<Application> apps = list();
+                    if (!apps.isEmpty() && rnd.nextDouble() < gradeRatio) {
+                        Application a = apps.get(rnd.nextInt(apps.size()));
+                        grade(a.jobId, a.candidateId, GRADES[rnd.nextInt(GRADES.length)]);
+                    }
+                    think(rnd, thinkMs);
+                }
+            }, "admin-" + i));
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+    }
+
+    private static void think(Random rnd, long thinkMs) {
+        if (thinkMs <= 0) return;
+        try {
+            Thread.sleep((long) (rnd.nextDouble() * 2 * thinkMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ===== คำสั่งแต่ละชนิด (จับเวลา + บันทึก trace) =====
+
+    private List<Job> browse() {
+        long t = System.nanoTime();
+        List<Job> jobs = repo.getAllOpenJobs();
+        jobs.sort(Comparator.comparing(j -> j.title));
+        done("BROWSE", t, "", "", "", "OK");
+        return jobs;
+    }
+
+    private List<Application> list() {
+        long t = System.nanoTime();
+        List<Application> apps = repo.getAllApplications();
+        done("LIST", t, "", "", "", "OK");
+        return apps;
+    }
+
+    // คืนผลของคำสั่ง ("OK" หรือเหตุที่ไม่ผ่าน) เพื่อให้ replay เทียบกับ trace ได้
+    private String apply(String jobId, String candId) {
+        long t = System.nanoTime();
+        Job job = repo.findJob(jobId);
+        Candidate cand = repo.findCandidate(candId);
+        // ขั้นตอนเดียวกับ controller: ตรวจสิทธิ์ → จองที่นั่ง → ส่งเข้า ApplyAdmission → รอเขียนเสร็จ
+        // (คืนที่นั่งถ้าไม่ผ่านด่านหรือบันทึกไม่สำเร็จ)
+        String outcome;
+        if (job == null || cand == null) outcome = "INVALID";
+        else if (!repo.canApply(cand, job)) outcome = "INELIGIBLE";
+        else if (!applied.add(jobId + "|" + candId)) outcome = "ALREADY_APPLIED";
+        else if (!repo.reserveSlot(job)) {
+            applied.remove(jobId + "|" + candId);
+            outcome = "FULL";
+        } else {
+            LocalDateTime when = LocalDateTime.now();
+            ApplyAdmission.Ticket ticket = admission.submit(jobId, candId, () -> repo.appendApplication(job, cand, when));
+            outcome = ticket.outcome == ApplyAdmission.Outcome.ACCEPTED ? "OK" : ticket.outcome.name();
+            if (outcome.equals("OK")) {
+                try {
+                    ticket.done.get();
+                } catch (ExecutionException e) {
+                    outcome = "FAILED";
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    outcome = "FAILED";
+                }
+            }
+            if (!outcome.equals("OK")) {
+                repo.releaseSlot(job);
+                applied.remove(jobId + "|" + candId);
+            }
+        }
+        done("APPLY", t, jobId, candId, "", outcome);
+        return outcome;
+    }
+
+    private String grade(String jobId, String candId, String grade) {
+        long t = System.nanoTime();
+        String outcome = "OK";
+        try {
+            repo.saveGrade(jobId, candId, grade);
+        } catch (IOException | RuntimeException e) {
+            outcome = "FAILED";
+        }
+        done("GRADE", t, jobId, candId, grade, outcome);
+        return outcome;
+    }
+
+    // จับเวลาเฉพาะคำสั่งที่สำเร็จ ส่วนที่ไม่ผ่านนับแยกตามเหตุ — บันทึกลง trace ทุกคำสั่ง
+    private void done(String op, long startedAt, String job, String cand, String grade, String outcome) {
+        long now = System.nanoTime();
+        if (outcome.equals("OK")) {
+            latencies.computeIfAbsent(op, k -> Collections.synchronizedList(new ArrayList<>())).add(now - startedAt);
+        } else {
+            rejected.computeIfAbsent(op + "/" + outcome, k -> new AtomicLong()).incrementAndGet();
+        }
+        if (trace == null) return;
+        trace.add(new TraceLine(startedAt, "{\"t\":" + TimeUnit.NANOSECONDS.toMillis(startedAt - startNanos)
+                + ",\"op\":\"" + op + "\",\"job\":\"" + job + "\",\"cand\":\"" + cand + "\",\"grade\":\"" + grade
+                + "\",\"outcome\":\"" + outcome + "\"}"));
+    }
+
+    // เขียน trace เรียงตามเวลาเริ่มคำสั่ง (คำสั่งที่ใช้เวลานานจบทีหลัง แต่ต้องอยู่ตามเวลาที่เริ่ม)
+    private void writeTrace(Path file) throws IOException {
+        List<TraceLine> lines = new ArrayList<>(trace);
+        lines.sort(Comparator.comparingLong(l -> l.startedAt));
+        try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (TraceLine l : lines) {
+                bw.write(l.json);
+                bw.newLine();
+            }
+        }
+    }
+
+    // ===== replay =====
+
+    private static final Pattern FIELD = Pattern.compile("\"(\\w+)\"\\s*:\\s*(?:\"([^\"]*)\"|(-?\\d+))");
+
+    private void replay(Path file, double speed, int workers) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        long begin = System.nanoTime();
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isBlank()) continue;
+                Map<String, String> f = new HashMap<>();
+                Matcher m = FIELD.matcher(line);
+                while (m.find()) f.put(m.group(1), m.group(2) != null ? m.group(2) : m.group(3));
+
+                // รอจนถึงเวลาของคำสั่งนี้ (ตาม speed)
+                long due = begin + (long) (TimeUnit.MILLISECONDS.toNanos(Long.parseLong(f.getOrDefault("t", "0"))) / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+
+                String op = f.getOrDefault("op", "");
+                String job = f.getOrDefault("job", "");
+                String cand = f.getOrDefault("cand", "");
+                String grade = f.getOrDefault("grade", "");
+                String expected = f.get("outcome"); // trace รุ่นแรกไม่มี
+                pool.execute(() -> {
+                    String outcome;
+                    switch (op) {
+                        case "BROWSE": browse(); outcome = "OK"; break;
+                        case "LIST":   list(); outcome = "OK"; break;
+                        case "APPLY":  outcome = apply(job, cand); break;
+                        case "GRADE":  outcome = grade(job, cand, grade); break;
+                        default:       done(op, System.nanoTime(), job, cand, grade, outcome = "INVALID");
+                    }
+                    if (expected != null && !expected.equals(outcome)) outcomeChanged.incrementAndGet();
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.HOURS);
+        }
+    }
+
+    // ===== สรุปผล =====
+
+    private void report(double seconds) {
+        long total = 0;
+        Set<String> ops = new TreeSet<>(latencies.keySet());
+        for (String k : rejected.keySet()) ops.add(k.substring(0, k.indexOf('/')));
+        System.out.printf("%-7s %8s %9s %9s %9s %9s %9s %8s%n", "op", "count", "ops/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)", "rejected");
+        for (String op : ops) {
+            List<Long> v = new ArrayList<>(latencies.getOrDefault(op, Collections.emptyList()));
+            Collections.sort(v);
+            total += v.size();
+            long rej = 0;
+            for (Map.Entry<String, AtomicLong> e : rejected.entrySet()) if (e.getKey().startsWith(op + "/")) rej += e.getValue().get();
+            System.out.printf("%-7s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %8d%n", op, v.size(), v.size() / seconds,
+                    pct(v, 0.50), pct(v, 0.90), pct(v, 0.99), v.isEmpty() ? 0 : v.get(v.size() - 1) / 1e6, rej);
+        }
+        System.out.printf("total %d ops in %.1fs (%.1f ops/s)%n", total, seconds, total / seconds);
+        if (!rejected.isEmpty()) {
+            StringBuilder sb = new StringBuilder("rejected by outcome:");
+            for (String k : new TreeSet<>(rejected.keySet())) sb.append(' ').append(k).append('=').append(rejected.get(k).get());
+            System.out.println(sb);
+        }
+        System.out.printf("apply queue: accepted %d, duplicates %d, throttled %d, shed %d%n",
+                admission.accepted(), admission.duplicates(), admission.throttled(), admission.shed());
+        if (outcomeChanged.get() > 0) System.out.printf("replay: %d op(s) had a different outcome than in the trace%n", outcomeChanged.get());
+    }
+
+    private static double pct(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0;
+        int i = Math.min(sorted.size() - 1, (int) Math.ceil(sorted.size() * p) - 1);
+        return sorted.get(Math.max(0, i)) / 1e6;
+    }
+}
@@ -0,0 +1,148 @@
+package tools;
+
+import model.Candidate;
+import model.Repository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * LoginBenchmark: เทียบเวลาและหน่วยความจำของการตรวจอีเมลตอน login
+ *
+ * - แบบเดิม: regex EMAIL + HashSet อีเมลผู้สมัคร + HashSet อีเมลแอดมิน + HashMap อีเมล → Candidate
+ * - แบบใหม่: Repository (ตัวตรวจรูปแบบที่เขียนเอง + LoginIndex ที่มี Bloom filter ด้านหน้า)
+ *
+ * สร้างฐานข้อมูลสังเคราะห์ (ผู้สมัคร N คน) ในโฟลเดอร์ชั่วคราว แล้ววัด
+ *   - heap ที่ค้างอยู่หลังโหลด (ทั้งสองแบบเก็บ Candidate ไว้ใน HashMap เหมือนกัน จึงเทียบกันได้ตรง ๆ)
+ *   - ns ต่อการ login 1 ครั้ง (ตรวจรูปแบบ → มีอีเมลไหม → หา Candidate) แยกอีเมลที่มี/ไม่มีในระบบ
+ *
+ * ใช้งาน:
+ *   java -cp target/jobfair.jar tools.LoginBenchmark [candidates=200000] [lookups=1000000]
+ * (heap วัดจาก Runtime หลัง System.gc() จึงเป็นค่าประมาณ — ควรรันด้วย -Xms/-Xmx เท่ากันเพื่อให้ค่านิ่ง)
+ */
+public class LoginBenchmark {
+
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final int ROUNDS = 5;
+
+    // โครงสร้างแบบเดิมของ Repository ก่อนมี LoginIndex
+    private static final class Before {
+        final Map<String, Candidate> candidates = new HashMap<>();
+        final Set<String> candidateEmails = new HashSet<>();
+        final Set<String> adminEmails = new HashSet<>();
+        final Map<String, Candidate> candidateByEmailLower = new HashMap<>();
+
+        Candidate login(String email) {
+            if (!EMAIL.matcher(email).matches()) return null;
+            String lower = email.toLowerCase();
+            if (!candidateEmails.contains(lower)) return null;
+            return candidateByEmailLower.get(lower);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        Path tmp = Files.createTempDirectory("jobfair-login");
+        try {
+            writeDatabase(tmp, n);
+            String[] hits = new String[Math.min(n, lookups)];
+            String[] misses = new String[hits.length];
+            Random rnd = new Random(42);
+            for (int i = 0; i < hits.length; i++) {
+                hits[i] = email(rnd.nextInt(n));
+                misses[i] = "nobody" + rnd.nextInt(Integer.MAX_VALUE) + "@example.com";
+            }
+
+            long base = usedHeap();
+            Before before = loadBefore(tmp);
+            long beforeBytes = usedHeap() - base;
+
+            base = usedHeap();
+            Repository repo = new Repository(tmp.toString());
+            long afterBytes = usedHeap() - base;
+
+            System.out.printf("candidates=%d lookups=%d%n", n, lookups);
+            System.out.printf("%-8s %14s %14s %14s%n", "", "heap (MB)", "hit (ns/op)", "miss (ns/op)");
+            System.out.printf("%-8s %14.1f %14.0f %14.0f%n", "before", beforeBytes / 1e6,
+                    time(lookups, hits, before::login), time(lookups, misses, before::login));
+            System.out.printf("%-8s %14.1f %14.0f %14.0f%n", "after", afterBytes / 1e6,
+                    time(lookups, hits, e -> loginAfter(repo, e)), time(lookups, misses, e -> loginAfter(repo, e)));
+            // กันไม่ให้ JIT/GC ทิ้งโครงสร้างก่อนวัดเสร็จ
+            if (before.candidates.size() + repo.getAllJobs().size() < 0) System.out.println();
+            repo.close();
+        } finally {
+            DatabaseCopy.delete(tmp);
+        }
+    }
+
+    // ขั้นตอนเดียวกับ controller ตอน login ของ student
+    private static Candidate loginAfter(Repository repo, String email) {
+        if (!repo.isValidEmail(email)) return null;
+        String lower = email.toLowerCase();
+        if (!repo.isCandidateEmail(lower)) return null;
+        return repo.findCandidateByEmailLower(lower);
+    }
+
+    // ns เฉลี่ยต่อครั้ง (median ของ ROUNDS รอบ หลังอุ่นเครื่อง 1 รอบ)
+    private static double time(int lookups, String[] emails, java.util.function.Function<String, Candidate> login) {
+        double[] perOp = new double[ROUNDS];
+        int sink = 0;
+        for (int r = -1; r < ROUNDS; r++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                if (login.apply(emails[i % emails.length]) != null) sink++;
+            }
+            if (r >= 0) perOp[r] = (double) (System.nanoTime() - t0) / lookups;
+        }
+        if (sink == -1) System.out.println();
+        Arrays.sort(perOp);
+        return perOp[ROUNDS / 2];
+    }
+
+    private static Before loadBefore(Path dir) throws IOException {
+        Before b = new Before();
+        List<String> lines = Files.readAllLines(dir.resolve("candidates.csv"));
+        for (int i = 1; i < lines.size(); i++) {
+            String[] r = lines.get(i).split(",", -1);
+            Candidate c = new Candidate(r[0], r[1], r[2], r[3], Candidate.CandidateStatus.valueOf(r[4]));
+            b.candidates.put(c.id, c);
+            String lower = c.email.toLowerCase();
+            b.candidateEmails.add(lower);
+            b.candidateByEmailLower.put(lower, c);
+        }
+        List<String> admins = Files.readAllLines(dir.resolve("admins.csv"));
+        for (int i = 1; i < admins.size(); i++) b.adminEmails.add(admins.get(i).trim().toLowerCase());
+        return b;
+    }
+
+    private static String email(int i) { return "Student" + i + "@Example.edu"; }
+
+    private static void writeDatabase(Path dir, int n) throws IOException {
+        Files.write(dir.resolve("companies.csv"), List.of("company_id,name,email,location"));
+        Files.write(dir.resolve("jobs.csv"), List.of("job_id,title,description,company_id,deadline,open,type"));
+        Files.write(dir.resolve("admins.csv"), List.of("email", "admin@example.com"));
+        try (BufferedWriter bw = Files.newBufferedWriter(dir.resolve("candidates.csv"))) {
+            bw.write("candidate_id,first,last,email,status");
+            bw.newLine();
+            for (int i = 0; i < n; i++) {
+                bw.write((30000000 + i) + ",First" + i + ",Last" + i + "," + email(i) + ","
+                        + (i % 2 == 0 ? "STUDYING" : "GRADUATED"));
+                bw.newLine();
+            }
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,79 @@
+package tools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * StartupBenchmark: วัดเวลาเริ่มโปรแกรมซ้ำหลายรอบ (แต่ละรอบเป็น JVM ใหม่)
+ *
+ * รัน app.Main ด้วย -Djobfair.startupReport=true -Djobfair.exitAfterStartup=true
+ * แล้วอ่านบรรทัด "startup <ชื่อ> <ms>" มาสรุป median / p90 / max
+ *
+ * ใช้งาน:
+ *   java -cp target/jobfair.jar tools.StartupBenchmark [runs] [extra JVM options...]
+ *   เช่น  ... tools.StartupBenchmark 10 -XX:SharedArchiveFile=target/jobfair.jsa
+ *
+ * ถ้ากำหนด -Djobfair.startupBudgetMs=<ms> แล้ว median ของ time-to-first-frame เกิน จะจบด้วย exit code 1
+ * (ต้องมีหน้าจอ/DISPLAY เพราะวัดจนหน้าต่างแรกเปิด)
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> extra = args.length > 1 ? Arrays.asList(args).subList(1, args.length) : List.of();
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String cp = System.getProperty("java.class.path");
+        Map<String, List<Long>> samples = new TreeMap<>();
+
+        for (int i = 0; i < runs; i++) {
+            List<String> cmd = new ArrayList<>();
+            cmd.add(java);
+            cmd.addAll(extra);
+            cmd.add("-Djobfair.startupReport=true");
+            cmd.add("-Djobfair.exitAfterStartup=true");
+            cmd.add("-cp");
+            cmd.add(cp);
+            cmd.add("app.Main");
+            for (Map.Entry<String, Long> e : runOnce(cmd).entrySet()) {
+                samples.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(e.getValue());
+            }
+        }
+
+        for (Map.Entry<String, List<Long>> e : samples.entrySet()) {
+            List<Long> v = e.getValue();
+            Collections.sort(v);
+            System.out.printf("%-22s n=%d median=%dms p90=%dms max=%dms%n", e.getKey(), v.size(),
+                    v.get(v.size() / 2), v.get(Math.min(v.size() - 1, (int) Math.ceil(v.size() * 0.9) - 1)),
+                    v.get(v.size() - 1));
+        }
+
+        Long budget = Long.getLong("jobfair.startupBudgetMs");
+        List<Long> frame = samples.get("time-to-first-frame");
+        if (budget != null) {
+            if (frame == null || frame.get(frame.size() / 2) > budget) {
+                System.out.println("FAIL: time-to-first-frame median exceeds budget " + budget + "ms");
+                System.exit(1);
+            }
+            System.out.println("OK: within budget " + budget + "ms");
+        }
+    }
+
+    // รันโปรแกรม 1 รอบ แล้วเก็บค่าจากบรรทัด "startup <ชื่อ> <ms>"
+    private static Map<String, Long> runOnce(List<String> cmd) throws IOException, InterruptedException {
+        Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+        Map<String, Long> out = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length == 3 && parts[0].equals("startup")) out.put(parts[1], Long.parseLong(parts[2]));
+            }
+        }
+        p.waitFor();
+        return out;
+    }
+}
@@ -1,16 +1,22 @@
 package view;
 
 import model.Application;
+import model.ApplicationHistory;
 import model.Company;
 import model.Job;
+import model.Profiling;
 import model.Candidate;
 import model.Repository;
 
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumn;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /** หน้าสำหรับแอดมิน: ดูรายการสมัคร + ใส่เกรด A-F */
 public class AdminView extends JPanel {
@@ -19,10 +25,22 @@ public class AdminView extends JPanel {
         // ส่ง index แถวและเกรดที่เลือกให้ Controller ไปบันทึก
         void handleSave(int rowIndex, String grade);
     }
+    public interface DashboardHandler { void handle(); }
+    public interface ExportHandler { void handle(); }
+    public interface HistoryHandler { void handle(int rowIndex); }
+    public interface AsOfHandler { void handle(String when); }
+    public interface ArchiveHandler { void handle(); }
+    public interface ViewArchiveHandler { void handle(); }
 
     private JTable table;
-    private DefaultTableModel dtm;
+    private ApplicationsModel dtm;
     private SaveHandler onSave;
+    private DashboardHandler onDashboard;
+    private ExportHandler onExport;
+    private HistoryHandler onHistory;
+    private AsOfHandler onAsOf;
+    private ArchiveHandler onArchive;
+    private ViewArchiveHandler onViewArchive;
 
     public AdminView() {
         setLayout(new BorderLayout(10,10));
@@ -31,15 +49,8 @@ public class AdminView extends JPanel {
         title.setFont(title.getFont().deriveFont(Font.BOLD, 18f));
         add(title, BorderLayout.NORTH);
 
-        dtm = new DefaultTableModel(new Object[]{
-                "Candidate", "Job", "Company", "Applied At", "Grade"
-        }, 0) {
-            @Override public boolean isCellEditable(int r, int c) {
-                // อนุญาตแก้ไขเฉพาะคอลัมน์ Grade
-                return c == 4;
-            }
-        };
-        table = new JTable(dtm);
+        dtm = new ApplicationsModel();
+        table = new ProfiledTable("applications", dtm);
         add(new JScrollPane(table), BorderLayout.CENTER);
 
         // ทำให้คอลัมน์ Grade เป็น ComboBox A-F
@@ -48,6 +59,41 @@ public class AdminView extends JPanel {
         gradeCol.setCellEditor(new DefaultCellEditor(gradeCombo));
 
         JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton btnDashboard = new JButton("Dashboard");
+        btnDashboard.addActionListener(e -> { if (onDashboard != null) onDashboard.handle(); });
+        bottom.add(btnDashboard);
+        JButton btnExport = new JButton("Export...");
+        btnExport.addActionListener(e -> { if (onExport != null) onExport.handle(); });
+        bottom.add(btnExport);
+        JButton btnHistory = new JButton("Grade history");
+        btnHistory.addActionListener(e -> {
+            int row = table.getSelectedRow();
+            if (row < 0) {
+                JOptionPane.showMessageDialog(this, "Please select a row.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (onHistory != null) onHistory.handle(row);
+        });
+        bottom.add(btnHistory);
+        JButton btnAsOf = new JButton("As of...");
+        btnAsOf.addActionListener(e -> {
+            // รับวันเวลาแบบ ISO เช่น 2025-09-21T12:00 หรือ 2025-09-21
+            String when = JOptionPane.showInputDialog(this, "Show applications as of (yyyy-MM-dd or yyyy-MM-ddTHH:mm):");
+            if (when != null && onAsOf != null) onAsOf.handle(when.trim());
+        });
+        bottom.add(btnAsOf);
+        JButton btnArchive = new JButton("Archive closed jobs");
+        btnArchive.addActionListener(e -> {
+            int ok = JOptionPane.showConfirmDialog(this,
+                    "Move applications of closed jobs past their deadline to the archive?",
+                    "Archive", JOptionPane.OK_CANCEL_OPTION);
+            if (ok == JOptionPane.OK_OPTION && onArchive != null) onArchive.handle();
+        });
+        bottom.add(btnArchive);
+        JButton btnViewArchive = new JButton("View archive");
+        btnViewArchive.addActionListener(e -> { if (onViewArchive != null) onViewArchive.handle(); });
+        bottom.add(btnViewArchive);
+
         JButton btnSave = new JButton("Save selected grade");
         btnSave.addActionListener(e -> {
             int row = table.getSelectedRow();
@@ -65,19 +111,115 @@ public class AdminView extends JPanel {
     /** Controller ใส่ handler บันทึกเกรด */
     public void setSaveHandler(SaveHandler h) { this.onSave = h; }
 
+    /** Controller ใส่ handler เปิดหน้า Dashboard */
+    public void setDashboardHandler(DashboardHandler h) { this.onDashboard = h; }
+
+    /** Controller ใส่ handler ส่งออกใบสมัคร (CSV/JSON) */
+    public void setExportHandler(ExportHandler h) { this.onExport = h; }
+
+    /** Controller ใส่ handler ดูประวัติเกรดของแถวที่เลือก และดูสถานะย้อนหลัง */
+    public void setHistoryHandlers(HistoryHandler h, AsOfHandler a) {
+        this.onHistory = h;
+        this.onAsOf = a;
+    }
+
+    /** Controller ใส่ handler ย้ายใบสมัครเก่าเข้าคลัง และเปิดดูคลัง */
+    public void setArchiveHandlers(ArchiveHandler a, ViewArchiveHandler v) {
+        this.onArchive = a;
+        this.onViewArchive = v;
+    }
+
     /** เติมตารางจากรายการ applications โดย map ชื่อผ่าน repository */
     public void setData(List<Application> applications, Repository repo) {
-        dtm.setRowCount(0);
-        for (Application a : applications) {
-            Candidate cand = repo.findCandidate(a.candidateId);
-            Job job = repo.findJob(a.jobId);
-            Company comp = (job == null) ? null : repo.findCompany(job.companyId);
-            String candName = cand == null ? "(Unknown)" : cand.fullName() + " (" + a.candidateId + ")";
-            String jobTitle = job == null ? "(Unknown)" : job.title + " (" + a.jobId + ")";
-            String company = comp == null ? "(Unknown)" : comp.name;
-            String appliedAt = a.appliedAt == null ? "" : a.appliedAt.toString();
-            dtm.addRow(new Object[]{ candName, jobTitle, company, appliedAt, a.grade });
+        Profiling.time(new Profiling.TableRepaint(), "table-fill", ev -> {
+            ev.table = "applications";
+            ev.phase = "fill";
+            ev.rows = applications.size();
+            dtm.setRows(applications, repo);
+        });
+    }
+
+    /**
+     * โมเดลตารางที่อ่านจากรายการใบสมัครโดยตรง: แปลงเป็นข้อความเฉพาะแถวที่ JTable วาด
+     * (รายการอาจเป็นแบบ lazy เช่นโหมด mmap ซึ่งแปลงแถวจากไฟล์ตอน get)
+     */
+    private static class ApplicationsModel extends AbstractTableModel {
+        private static final String[] COLUMNS = { "Candidate", "Job", "Company", "Applied At", "Grade" };
+        private List<Application> rows = new ArrayList<>();
+        private Repository repo;
+        private final Map<Integer, String> edits = new HashMap<>(); // เกรดที่แก้ในตารางแต่ยังไม่บันทึก
+        private int cachedRow = -1;
+        private Object[] cached;
+
+        void setRows(List<Application> rows, Repository repo) {
+            this.rows = rows;
+            this.repo = repo;
+            edits.clear();
+            cachedRow = -1;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return rows.size(); }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int c) { return COLUMNS[c]; }
+
+        // อนุญาตแก้ไขเฉพาะคอลัมน์ Grade
+        @Override public boolean isCellEditable(int r, int c) { return c == 4; }
+
+        @Override public Object getValueAt(int r, int c) {
+            if (c == 4 && edits.containsKey(r)) return edits.get(r);
+            if (r != cachedRow) {
+                cached = rowFor(rows.get(r), repo);
+                cachedRow = r;
+            }
+            return cached[c];
         }
+
+        @Override public void setValueAt(Object v, int r, int c) {
+            if (c != 4) return;
+            edits.put(r, (String) v);
+            fireTableCellUpdated(r, c);
+        }
+    }
+
+    // แปลงใบสมัคร 1 ใบเป็นแถวในตาราง (map ชื่อผ่าน repository)
+    private static Object[] rowFor(Application a, Repository repo) {
+        Candidate cand = repo.findCandidate(a.candidateId);
+        Job job = repo.findJob(a.jobId);
+        Company comp = (job == null) ? null : repo.findCompany(job.companyId);
+        String candName = cand == null ? "(Unknown)" : cand.fullName() + " (" + a.candidateId + ")";
+        String jobTitle = job == null ? "(Unknown)" : job.title + " (" + a.jobId + ")";
+        String company = comp == null ? "(Unknown)" : comp.name;
+        String appliedAt = a.appliedAt == null ? "" : a.appliedAt.toString();
+        return new Object[]{ candName, jobTitle, company, appliedAt, a.grade };
+    }
+
+    /** แสดงรายการใบสมัครแบบอ่านอย่างเดียวใน dialog (เช่น สถานะย้อนหลัง) */
+    public void showApplicationsDialog(String title, List<Application> applications, Repository repo) {
+        DefaultTableModel m = new DefaultTableModel(new Object[]{
+                "Candidate", "Job", "Company", "Applied At", "Grade"
+        }, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        for (Application a : applications) m.addRow(rowFor(a, repo));
+        showTableDialog(title, m);
+    }
+
+    /** แสดงเหตุการณ์ของใบสมัครใน dialog (ใคร ทำอะไร เมื่อไร) */
+    public void showEventsDialog(String title, List<ApplicationHistory.Event> events) {
+        DefaultTableModel m = new DefaultTableModel(new Object[]{ "#", "At", "Event", "Grade", "By" }, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        for (ApplicationHistory.Event ev : events) {
+            m.addRow(new Object[]{ ev.seq, ev.at.toString(), ev.type.name(), ev.grade, ev.actor });
+        }
+        showTableDialog(title, m);
+    }
+
+    private void showTableDialog(String title, DefaultTableModel m) {
+        JScrollPane sp = new JScrollPane(new JTable(m));
+        sp.setPreferredSize(new Dimension(700, 300));
+        JOptionPane.showMessageDialog(this, sp, title, JOptionPane.PLAIN_MESSAGE);
     }
 
     /** ดึงข้อมูลแอปพลิเคชันของแถว (สำหรับ Controller ใช้หา id ต้นทาง) */
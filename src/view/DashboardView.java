@@ -0,0 +1,130 @@
+package view;
+
+import model.Application;
+import model.ApplicationStats;
+import model.Candidate;
+import model.Company;
+import model.Job;
+import model.QueueMetrics;
+import model.ReadThroughCache;
+import model.Repository;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * หน้า Dashboard ของแอดมิน: สรุปจำนวนใบสมัคร
+ * - ค่าทั้งหมดอ่านจาก ApplicationStats ที่ Repository อัปเดตไว้แล้ว
+ *   (เวลาที่ใช้ขึ้นกับจำนวนงาน/บริษัท ไม่ขึ้นกับจำนวนใบสมัคร)
+ */
+public class DashboardView extends JPanel {
+
+    public interface BackHandler { void handle(); }
+
+    private BackHandler onBack;
+
+    private final JLabel lblTotal = new JLabel("-");
+    private final JLabel lblCoop = new JLabel("-");
+    private final JLabel lblRegular = new JLabel("-");
+    private final JLabel lblQueue = new JLabel("-");
+    private final JLabel lblCache = new JLabel(" ");
+    private final DefaultTableModel jobModel;
+    private final DefaultTableModel companyModel;
+
+    public DashboardView() {
+        setLayout(new BorderLayout(10,10));
+
+        // ส่วนหัว: ชื่อหน้า + ตัวเลขสรุปรวม
+        JPanel top = new JPanel(new GridLayout(0, 1));
+        JLabel title = new JLabel("Dashboard (Admin)");
+        title.setFont(title.getFont().deriveFont(Font.BOLD, 18f));
+        top.add(title);
+        top.add(lblTotal);
+        top.add(lblCoop);
+        top.add(lblRegular);
+        top.add(lblQueue);
+        top.add(lblCache);
+        add(top, BorderLayout.NORTH);
+
+        // ตารางต่องาน (พร้อมการกระจายเกรด) และตารางต่อบริษัท
+        jobModel = new DefaultTableModel(new Object[]{
+                "Job", "Company", "Type", "Applications", "A", "B", "C", "D", "F", "Ungraded", "Top candidate"
+        }, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        companyModel = new DefaultTableModel(new Object[]{ "Company", "Applications" }, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                new JScrollPane(new JTable(jobModel)), new JScrollPane(new JTable(companyModel)));
+        split.setResizeWeight(0.7);
+        add(split, BorderLayout.CENTER);
+
+        JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton btnBack = new JButton("Back to applications");
+        btnBack.addActionListener(e -> { if (onBack != null) onBack.handle(); });
+        bottom.add(btnBack);
+        add(bottom, BorderLayout.SOUTH);
+    }
+
+    // ผู้สมัครอันดับ 1 ของงาน (เกรดดีสุด สมัครก่อน) เช่น "Somchai Jaidee (A)"
+    private static String topCandidateText(Repository repo, Application a) {
+        if (a == null) return "";
+        Candidate cand = repo.findCandidate(a.candidateId);
+        String name = cand == null ? a.candidateId : cand.fullName();
+        return a.grade.isEmpty() ? name : name + " (" + a.grade + ")";
+    }
+
+    /** ให้ Controller ใส่ handler ปุ่มย้อนกลับ */
+    public void setBackHandler(BackHandler h) { this.onBack = h; }
+
+    /** เติมข้อมูลจากตัวนับสรุปของ Repository และ metrics ของคิวสมัคร */
+    public void setData(Repository repo, QueueMetrics admission) {
+        ApplicationStats st = repo.getStats();
+        List<Job> jobs = repo.getAllJobs();
+
+        int[] jobsPerType = new int[Job.JobType.values().length];
+        jobModel.setRowCount(0);
+        for (Job j : jobs) {
+            jobsPerType[j.type.ordinal()]++;
+            Company c = repo.findCompany(j.companyId);
+            int[] g = st.gradesForJob(j.id);
+            jobModel.addRow(new Object[]{
+                    j.title + " (" + j.id + ")", c == null ? "(Unknown)" : c.name, j.type.name(),
+                    st.countForJob(j.id), g[0], g[1], g[2], g[3], g[4], g[5], topCandidateText(repo, st.topForJob(j.id))
+            });
+        }
+
+        companyModel.setRowCount(0);
+        for (Company c : repo.getAllCompanies()) {
+            companyModel.addRow(new Object[]{ c.name + " (" + c.id + ")", st.countForCompany(c.id) });
+        }
+
+        lblTotal.setText("Total applications: " + st.total());
+        lblCoop.setText(typeLine(st, Job.JobType.COOP, jobsPerType));
+        lblRegular.setText(typeLine(st, Job.JobType.REGULAR, jobsPerType));
+        lblQueue.setText("Apply queue: depth " + admission.queueDepth() + ", accepted " + admission.accepted()
+                + ", duplicates " + admission.duplicates() + ", throttled " + admission.throttled()
+                + ", shed " + admission.shed());
+        // แสดงเฉพาะโหมด remote (อ่านผู้สมัคร/บริษัทผ่านแคช)
+        lblCache.setText(repo.getCandidateCache() == null ? " "
+                : "Lookup cache: candidates " + cacheText(repo.getCandidateCache())
+                + "; companies " + cacheText(repo.getCompanyCache()));
+    }
+
+    // เช่น "hit 97% (1200/1237), 500/10000 entries, 3 evicted"
+    private static String cacheText(ReadThroughCache<?, ?> c) {
+        return String.format("hit %.0f%% (%d/%d), %d/%d entries, %d evicted", 100 * c.hitRate(), c.hits(),
+                c.hits() + c.misses(), c.size(), c.capacity(), c.evictions());
+    }
+
+    // ข้อความสรุปต่อประเภทงาน: จำนวนใบสมัคร และสัดส่วนงานที่มีผู้สมัครแล้ว (fill rate)
+    private static String typeLine(ApplicationStats st, Job.JobType t, int[] jobsPerType) {
+        int filled = st.jobsWithApplications(t), all = jobsPerType[t.ordinal()];
+        String rate = all == 0 ? "-" : String.format("%.0f%%", 100.0 * filled / all);
+        return t.name() + ": " + st.countForType(t) + " applications, "
+                + filled + "/" + all + " jobs filled (" + rate + ")";
+    }
+}
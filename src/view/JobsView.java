@@ -6,6 +6,7 @@ import java.awt.*;
 import java.util.List;
 
 import model.Job;
+import model.Profiling;
 import model.Repository;
 
 /** หน้าแสดง ตำแหน่งงานที่เปิด */
@@ -33,7 +34,7 @@ public class JobsView extends JPanel {
 
         JPanel left = new JPanel(new FlowLayout(FlowLayout.LEFT));
         left.add(new JLabel("Sort by:"));
-        cbSort = new JComboBox<>(new String[]{"BY_TITLE","BY_COMPANY","BY_DEADLINE"});
+        cbSort = new JComboBox<>(new String[]{"BY_TITLE","BY_COMPANY","BY_DEADLINE","RECOMMENDED"});
         cbSort.addActionListener(e -> { if (onSort != null) onSort.handle(getSortKey()); });
         left.add(cbSort);
 
@@ -59,7 +60,7 @@ public class JobsView extends JPanel {
         add(top, BorderLayout.NORTH);
 
         // ตารางแสดงงาน
-        table = new JTable(new DefaultTableModel(new Object[]{"Job ID","Title","Company","Deadline","Type"}, 0) {
+        table = new ProfiledTable("jobs", new DefaultTableModel(new Object[]{"Job ID","Title","Company","Deadline","Type","Slots left"}, 0) {
             @Override public boolean isCellEditable(int r, int c) { return false; }
         });
         add(new JScrollPane(table), BorderLayout.CENTER);
@@ -75,20 +76,29 @@ public class JobsView extends JPanel {
 
     // ให้ Controller เติมข้อมูลตาราง
     public void setTableData(List<Job> jobs, Repository repo) {
-        DefaultTableModel dtm = (DefaultTableModel) table.getModel();
-        dtm.setRowCount(0);
-        for (Job j : jobs) {
-            String companyName = "(Unknown Company)";
-            var c = repo.findCompany(j.companyId);
-            if (c != null) companyName = c.name;
-            dtm.addRow(new Object[]{
-                    j.id, j.title, companyName,
-                    (j.deadline == null ? "" : j.deadline.toString()),
-                    j.type.name()
-            });
-        }
+        Profiling.time(new Profiling.TableRepaint(), "table-fill", ev -> {
+            ev.table = "jobs";
+            ev.phase = "fill";
+            ev.rows = jobs.size();
+            DefaultTableModel dtm = (DefaultTableModel) table.getModel();
+            dtm.setRowCount(0);
+            for (Job j : jobs) {
+                String companyName = "(Unknown Company)";
+                var c = repo.findCompany(j.companyId);
+                if (c != null) companyName = c.name;
+                dtm.addRow(new Object[]{
+                        j.id, j.title, companyName,
+                        (j.deadline == null ? "" : j.deadline.toString()),
+                        j.type.name(),
+                        slotsText(repo.remainingSlots(j))
+                });
+            }
+        });
     }
 
+    // ที่นั่งที่เหลือ: "-" = ไม่จำกัดจำนวนรับ
+    private static String slotsText(int remaining) { return remaining < 0 ? "-" : String.valueOf(remaining); }
+
     // เรียกจาก Controller เพื่อปิดปุ่ม Apply เมื่อเป็น admin
     public void setApplyEnabled(boolean enabled) {
         btnApply.setEnabled(enabled);
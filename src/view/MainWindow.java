@@ -13,6 +13,7 @@ public class MainWindow extends JFrame {
     public final JobsView jobsView = new JobsView();
     public final ApplyView applyView = new ApplyView();
     public final AdminView adminView = new AdminView(); 
+    public final DashboardView dashboardView = new DashboardView();
 
     public MainWindow() {
         setTitle("Job Fair - MVC (Swing)");
@@ -24,6 +25,7 @@ public class MainWindow extends JFrame {
         root.add(jobsView, "JOBS");
         root.add(applyView, "APPLY");
         root.add(adminView, "ADMIN");
+        root.add(dashboardView, "DASHBOARD");
         setContentPane(root);
     }
 
@@ -32,6 +34,7 @@ public class MainWindow extends JFrame {
     public void showJobs() { card.show(root, "JOBS"); }
     public void showApply(){ card.show(root, "APPLY"); }
     public void showAdmin(){ card.show(root, "ADMIN"); } 
+    public void showDashboard(){ card.show(root, "DASHBOARD"); }
 
     public void setSessionTitle(String email, String role) {
         setTitle("Job Fair - MVC | " + role + " | " + email);
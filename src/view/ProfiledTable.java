@@ -0,0 +1,40 @@
+package view;
+
+import model.Profiling;
+
+import javax.swing.JTable;
+import javax.swing.table.TableModel;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+
+/** JTable ที่ส่ง event TableRepaint (phase "paint") ทุกครั้งที่วาด พร้อมจำนวนแถวที่อยู่ในพื้นที่วาด */
+class ProfiledTable extends JTable {
+
+    private final String name;
+
+    ProfiledTable(String name, TableModel model) {
+        super(model);
+        this.name = name;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Profiling.time(new Profiling.TableRepaint(), "table-paint", ev -> {
+            ev.table = name;
+            ev.phase = "paint";
+            ev.rows = visibleRows(g.getClipBounds());
+            super.paintComponent(g);
+        });
+    }
+
+    // จำนวนแถวที่ตัดกับพื้นที่วาด (clip)
+    private int visibleRows(Rectangle clip) {
+        if (clip == null || getRowCount() == 0) return getRowCount();
+        int first = rowAtPoint(clip.getLocation());
+        int last = rowAtPoint(new Point(clip.x, clip.y + clip.height - 1));
+        if (first < 0) first = 0;
+        if (last < 0) last = getRowCount() - 1;
+        return last - first + 1;
+    }
+}
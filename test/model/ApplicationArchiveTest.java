@@ -0,0 +1,132 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** ApplicationArchive: segment เขียน/อ่านกลับ, prepare/commit/abort และ recover หลังหยุดกลางทาง */
+class ApplicationArchiveTest {
+
+    @TempDir Path dir;
+
+    private static final Map<String, String> COMPANY_OF = Map.of("j1", "c1", "j2", "c2", "j3", "c3");
+
+    private static List<String> keys(Collection<Application> apps) {
+        return apps.stream().map(a -> a.jobId + "," + a.candidateId + "," + a.appliedAt + "," + a.grade)
+                .sorted().collect(Collectors.toList());
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> s = Files.list(dir.resolve("archive"))) {
+            return s.filter(p -> p.toString().endsWith(suffix)).collect(Collectors.toList());
+        }
+    }
+
+    private static final ApplicationArchive.Remover NO_REMOVE = ids -> fail("nothing should be removed");
+
+    @Test
+    void committedSegmentsReadBackExactly() throws IOException {
+        List<Application> rows = List.of(
+                new Application("j1", "20000007", LocalDateTime.of(2030, 1, 1, 9, 0, 5, 123_000_000), "A"),
+                new Application("j1", "20000001", LocalDateTime.of(2029, 12, 31, 23, 59), ""),
+                new Application("j1", "20000003", null, "F"),
+                new Application("j2", "cand-x", LocalDateTime.of(2030, 1, 2, 8, 0), "C"),
+                new Application("j2", "007", LocalDateTime.of(2030, 1, 2, 7, 0), "B"));
+        ApplicationArchive archive = new ApplicationArchive(dir.resolve("archive"));
+        archive.commit(archive.prepare(rows));
+        archive.commit(archive.prepare(List.of(new Application("j3", "1", LocalDateTime.of(2030, 2, 1, 0, 0), "D"))));
+
+        assertEquals(2, files(".bin.gz").size());
+        List<Application> all = new ApplicationArchive(dir.resolve("archive")).all();
+        List<Application> expected = new ArrayList<>(rows);
+        expected.add(new Application("j3", "1", LocalDateTime.of(2030, 2, 1, 0, 0), "D"));
+        assertEquals(keys(expected), keys(all));
+    }
+
+    @Test
+    void abortLeavesNothingInTheArchive() throws IOException {
+        ApplicationArchive archive = new ApplicationArchive(dir.resolve("archive"));
+        archive.abort(archive.prepare(List.of(new Application("j1", "a", null, ""))));
+        assertTrue(files("").isEmpty());
+        assertTrue(archive.all().isEmpty());
+    }
+
+    @Test
+    void recoverDropsTheSegmentWhenNothingWasRemovedYet() throws IOException {
+        ApplicationArchive archive = new ApplicationArchive(dir.resolve("archive"));
+        List<Application> rows = List.of(new Application("j1", "a", null, ""), new Application("j1", "b", null, ""));
+        archive.prepare(rows);
+
+        ApplicationArchive reopened = new ApplicationArchive(dir.resolve("archive"));
+        assertTrue(reopened.recover(a -> true, NO_REMOVE).isEmpty());
+        assertTrue(files("").isEmpty());
+    }
+
+    @Test
+    void recoverCommitsWhenTheMainFileWasAlreadyRewritten() throws IOException {
+        ApplicationArchive archive = new ApplicationArchive(dir.resolve("archive"));
+        List<Application> rows = List.of(new Application("j1", "a", null, "B"));
+        archive.prepare(rows);
+
+        ApplicationArchive reopened = new ApplicationArchive(dir.resolve("archive"));
+        assertEquals(keys(rows), keys(reopened.recover(a -> false, NO_REMOVE)));
+        assertTrue(files(".tmp").isEmpty());
+        assertEquals(keys(rows), keys(reopened.all()));
+    }
+
+    @Test
+    void recoverDropsATornSegment() throws IOException {
+        ApplicationArchive archive = new ApplicationArchive(dir.resolve("archive"));
+        ApplicationArchive.Pending p = archive.prepare(List.of(new Application("j1", "a", null, "")));
+        byte[] bytes = Files.readAllBytes(p.tmp);
+        Files.write(p.tmp, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertTrue(new ApplicationArchive(dir.resolve("archive")).recover(a -> false, NO_REMOVE).isEmpty());
+        assertTrue(files("").isEmpty());
+    }
+
+    @Test
+    void recoverFinishesAnArchiveThatStoppedBetweenShards() throws IOException {
+        Path csv = dir.resolve("applications.csv");
+        ApplicationStore store = new ApplicationStore(Repository.ShardBy.COMPANY, false, csv, COMPANY_OF::get);
+        store.load();
+        for (String[] r : new String[][]{ {"j1", "a"}, {"j1", "b"}, {"j2", "c"}, {"j3", "d"} }) {
+            Application a = new Application(r[0], r[1], LocalDateTime.of(2030, 1, 1, 9, 0), "");
+            store.appendToDisk(a);
+            store.add(a);
+        }
+        List<Application> moving = new ArrayList<>();
+        for (Application a : store.all()) if (!a.jobId.equals("j3")) moving.add(a);
+        new ApplicationArchive(dir.resolve("archive")).prepare(moving);
+
+        // หยุดหลังเขียน shard ของ c1 ใหม่แล้ว แต่ shard ของ c2 ยังไม่ถูกแตะ
+        Path c1 = dir.resolve("applications/c1.csv");
+        Files.write(c1, List.of(ApplicationStore.HEADER));
+
+        ApplicationStore reopened = new ApplicationStore(Repository.ShardBy.COMPANY, false, csv, COMPANY_OF::get);
+        reopened.load();
+        assertNull(reopened.find("j1", "a"));
+        assertNotNull(reopened.find("j2", "c"));
+
+        ApplicationArchive archive = new ApplicationArchive(dir.resolve("archive"));
+        List<Application> committed = archive.recover(a -> reopened.find(a.jobId, a.candidateId) != null,
+                reopened::removeJobs);
+        assertEquals(keys(moving), keys(committed));
+        assertEquals(keys(moving), keys(archive.all()));
+        assertTrue(files(".tmp").isEmpty());
+
+        ApplicationStore after = new ApplicationStore(Repository.ShardBy.COMPANY, false, csv, COMPANY_OF::get);
+        after.load();
+        assertEquals(List.of("j3,d"), after.all().stream().map(a -> a.jobId + "," + a.candidateId)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,108 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** ApplicationHistory: asOf ย้อนเวลา, log ที่เวลาไม่เรียง และบรรทัดท้ายที่เขียนไม่จบ */
+class ApplicationHistoryTest {
+
+    @TempDir Path dir;
+
+    private static List<String> keys(List<Application> apps) {
+        return apps.stream().map(a -> a.jobId + "," + a.candidateId + "," + a.grade).sorted().collect(Collectors.toList());
+    }
+
+    // รอให้นาฬิกาเดินไปก่อน เพื่อให้เวลาของเหตุการณ์ถัดไปมากกว่าค่าที่คืน
+    private static LocalDateTime tick() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime t = LocalDateTime.now();
+        Thread.sleep(5);
+        return t;
+    }
+
+    @Test
+    void asOfReplaysEventsUpToTheGivenTime() throws Exception {
+        try (ApplicationHistory h = new ApplicationHistory(dir, ArrayList::new)) {
+            Application a = new Application("j1", "a", LocalDateTime.now(), "");
+            h.record(ApplicationHistory.EventType.APPLIED, a, "a@x");
+            LocalDateTime afterApply = tick();
+            a.grade = "B";
+            h.record(ApplicationHistory.EventType.GRADED, a, "admin@x");
+            LocalDateTime afterGrade = tick();
+            h.record(ApplicationHistory.EventType.ARCHIVED, a, "admin@x");
+
+            assertEquals(List.of(), keys(h.asOf(afterApply.minusDays(1))));
+            assertEquals(List.of("j1,a,"), keys(h.asOf(afterApply)));
+            assertEquals(List.of("j1,a,B"), keys(h.asOf(afterGrade)));
+            assertEquals(List.of(), keys(h.asOf(LocalDateTime.now())));
+            assertEquals(List.of("a@x", "admin@x", "admin@x"),
+                    h.eventsFor("j1", "a").stream().map(e -> e.actor).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void importedEventsOutOfTimeOrderAreNotDropped() throws Exception {
+        // แถวในไฟล์ไม่เรียงตามเวลาสมัคร → APPLIED ตอน import ก็ไม่เรียงตาม at
+        List<Application> existing = List.of(
+                new Application("j1", "late", LocalDateTime.of(2020, 1, 2, 9, 0), ""),
+                new Application("j1", "early", LocalDateTime.of(2020, 1, 1, 9, 0), ""));
+        try (ApplicationHistory h = new ApplicationHistory(dir, () -> existing)) {
+            assertEquals(List.of("j1,early,"), keys(h.asOf(LocalDateTime.of(2020, 1, 1, 12, 0))));
+            assertEquals(List.of("j1,early,", "j1,late,"), keys(h.asOf(LocalDateTime.of(2020, 1, 3, 0, 0))));
+        }
+    }
+
+    @Test
+    void tornLastLineIsDroppedOnOpen() throws Exception {
+        Application a = new Application("j1", "a", LocalDateTime.now(), "");
+        try (ApplicationHistory h = new ApplicationHistory(dir, ArrayList::new)) {
+            h.record(ApplicationHistory.EventType.APPLIED, a, "a@x");
+        }
+        // โปรแกรมหยุดระหว่างเขียนเหตุการณ์ถัดไป
+        Files.write(dir.resolve("events.log"), "2,2030-01-01T00:00,GRA".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        try (ApplicationHistory h = new ApplicationHistory(dir, ArrayList::new)) {
+            a.grade = "A";
+            h.record(ApplicationHistory.EventType.GRADED, a, "admin@x");
+            assertEquals(List.of("j1,a,A"), keys(h.asOf(LocalDateTime.now())));
+            List<ApplicationHistory.Event> events = h.eventsFor("j1", "a");
+            assertEquals(List.of(1L, 2L), events.stream().map(e -> e.seq).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void asOfOlderThanRetainedSnapshotsReplaysFromTheStart() throws Exception {
+        LocalDateTime early;
+        try (ApplicationHistory h = new ApplicationHistory(dir, ArrayList::new)) {
+            h.record(ApplicationHistory.EventType.APPLIED, new Application("j0", "first", LocalDateTime.now(), ""), "x");
+            early = tick();
+            int n = ApplicationHistory.SNAPSHOT_EVERY * (ApplicationHistory.KEEP_SNAPSHOTS + 2);
+            for (int i = 0; i < n; i++) {
+                h.record(ApplicationHistory.EventType.APPLIED, new Application("j1", "c" + i, LocalDateTime.now(), ""), "x");
+            }
+        } // close() รอ snapshot ที่ค้างเขียนเสร็จ
+
+        try (ApplicationHistory h = new ApplicationHistory(dir, ArrayList::new)) {
+            long kept;
+            try (var s = Files.list(dir)) {
+                kept = s.filter(p -> p.getFileName().toString().startsWith("snapshot-")).count();
+            }
+            assertEquals(ApplicationHistory.KEEP_SNAPSHOTS, kept);
+            assertEquals(List.of("j0,first,"), keys(h.asOf(early)));
+            assertEquals(ApplicationHistory.SNAPSHOT_EVERY * (ApplicationHistory.KEEP_SNAPSHOTS + 2) + 1,
+                    h.asOf(LocalDateTime.now()).size());
+        }
+    }
+}
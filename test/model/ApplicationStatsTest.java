@@ -0,0 +1,59 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** ApplicationStats: อันดับ 1 ต่องานที่อัปเดตตอนสมัคร/แก้เกรด และตอน merge */
+class ApplicationStatsTest {
+
+    private static Application app(String job, String cand, int minute, String grade) {
+        return new Application(job, cand, LocalDateTime.of(2030, 1, 1, 9, minute), grade);
+    }
+
+    @Test
+    void topFollowsGradeThenApplyTime() {
+        ApplicationStats st = new ApplicationStats();
+        Application late = app("j1", "late", 5, "");
+        Application early = app("j1", "early", 1, "");
+        st.add(late, null);
+        st.add(early, null);
+        assertEquals("early", st.topForJob("j1").candidateId);
+
+        String old = late.grade;
+        late.grade = "B";
+        assertFalse(st.regrade(late, old));
+        assertEquals("late", st.topForJob("j1").candidateId);
+        assertNull(st.topForJob("j2"));
+    }
+
+    @Test
+    void demotingTheTopAsksForARecompute() {
+        ApplicationStats st = new ApplicationStats();
+        Application a = app("j1", "a", 1, "A");
+        Application b = app("j1", "b", 2, "C");
+        st.add(a, null);
+        st.add(b, null);
+
+        a.grade = "D";
+        assertTrue(st.regrade(a, "A"));
+        st.bestOf("j1", List.of(a, b, app("j2", "x", 0, "A")));
+        assertEquals("b", st.topForJob("j1").candidateId);
+        assertArrayEquals(new int[]{0, 0, 1, 1, 0, 0}, st.gradesForJob("j1"));
+    }
+
+    @Test
+    void mergeKeepsTheBetterTopOfEachPart() {
+        ApplicationStats left = new ApplicationStats(), right = new ApplicationStats();
+        left.add(app("j1", "a", 1, "C"), null);
+        right.add(app("j1", "b", 9, "A"), null);
+        right.add(app("j2", "c", 3, ""), null);
+
+        ApplicationStats st = left.merge(right);
+        assertEquals("b", st.topForJob("j1").candidateId);
+        assertEquals("c", st.topForJob("j2").candidateId);
+    }
+}
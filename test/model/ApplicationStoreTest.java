@@ -0,0 +1,114 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** ApplicationStore: โหลด/เขียน shard กลับ และการแตกไฟล์เดิมเป็น shard */
+class ApplicationStoreTest {
+
+    @TempDir Path dir;
+
+    private static final Map<String, String> COMPANY_OF = Map.of("j1", "c1", "j2", "c1", "j3", "C1");
+
+    private ApplicationStore open(Repository.ShardBy by) throws IOException {
+        ApplicationStore s = new ApplicationStore(by, false, dir.resolve("applications.csv"), COMPANY_OF::get);
+        s.load();
+        return s;
+    }
+
+    private static void append(ApplicationStore s, String job, String cand, int minute) throws IOException {
+        Application a = new Application(job, cand, LocalDateTime.of(2030, 1, 1, 9, minute), "");
+        s.appendToDisk(a);
+        s.add(a);
+    }
+
+    private static List<String> rows(ApplicationStore s) {
+        return s.all().stream().map(a -> a.jobId + "," + a.candidateId + "," + a.grade).collect(Collectors.toList());
+    }
+
+    @Test
+    void jobShardsRoundTripAppendsAndGrades() throws IOException {
+        ApplicationStore s = open(Repository.ShardBy.JOB);
+        append(s, "j1", "a", 1);
+        append(s, "j2", "b", 2);
+        append(s, "j1", "c", 3);
+        Application c = s.find("j1", "c");
+        c.grade = "B";
+        s.saveGrade(c);
+
+        assertTrue(Files.exists(dir.resolve("applications/j1.csv")));
+        assertTrue(Files.exists(dir.resolve("applications/j2.csv")));
+
+        ApplicationStore reopened = open(Repository.ShardBy.JOB);
+        assertEquals(List.of("j1,a,", "j2,b,", "j1,c,B"), rows(reopened));
+        assertEquals("B", reopened.find("j1", "c").grade);
+        assertNull(reopened.find("j2", "c"));
+    }
+
+    @Test
+    void firstShardedLoadSplitsExistingFileByCompany() throws IOException {
+        Files.write(dir.resolve("applications.csv"), List.of(
+                "job_id,candidate_id,applied_at",
+                "j1,a,2030-01-01T09:01",
+                "j3,b,2030-01-01T09:02",
+                "j2,c,2030-01-01T09:03"));
+
+        ApplicationStore s = open(Repository.ShardBy.COMPANY);
+        assertEquals(3, s.size());
+        assertFalse(Files.exists(dir.resolve("applications.csv")));
+        assertTrue(Files.exists(dir.resolve("applications.csv.sharded")));
+        // "c1" กับ "C1" ต้องได้คนละไฟล์ แม้ระบบไฟล์ไม่แยกตัวพิมพ์
+        assertTrue(Files.exists(dir.resolve("applications/c1.csv")));
+        assertTrue(Files.exists(dir.resolve("applications/%431.csv")));
+
+        assertEquals(List.of("j1,a,", "j3,b,", "j2,c,"), rows(open(Repository.ShardBy.COMPANY)));
+    }
+
+    @Test
+    void removeJobsRewritesTouchedShardsAndDeletesEmptyOnes() throws IOException {
+        ApplicationStore s = open(Repository.ShardBy.COMPANY);
+        append(s, "j1", "a", 1);
+        append(s, "j2", "b", 2);
+        append(s, "j3", "c", 3);
+
+        List<Application> removed = s.removeJobs(Set.of("j1", "j3"));
+        assertEquals(2, removed.size());
+        assertFalse(Files.exists(dir.resolve("applications/%431.csv")));
+
+        assertEquals(List.of("j2,b,"), rows(open(Repository.ShardBy.COMPANY)));
+    }
+
+    @Test
+    void noneModeKeepsFileOrderAndUpgradesThreeColumnHeader() throws IOException {
+        Files.write(dir.resolve("applications.csv"), List.of(
+                "job_id,candidate_id,applied_at",
+                "j2,b,2030-01-01T09:05",
+                "j1,a,2030-01-01T09:01"));
+
+        ApplicationStore s = open(Repository.ShardBy.NONE);
+        Application a = s.find("j1", "a");
+        a.grade = "A";
+        s.saveGrade(a);
+
+        assertEquals(ApplicationStore.HEADER, Files.readAllLines(dir.resolve("applications.csv")).get(0));
+        assertFalse(Files.exists(dir.resolve("applications.csv.tmp")), "rewrite goes through a tmp file and a move");
+        assertEquals(List.of("j2,b,", "j1,a,A"), rows(open(Repository.ShardBy.NONE)));
+    }
+
+    @Test
+    void encodedKeysStayDistinctIgnoringCase() {
+        List<String> keys = List.of("a", "A", "%41", "%61", "job-1", "Job_1", "งาน", "a/b", "a\\b");
+        Set<String> names = new HashSet<>();
+        for (String k : keys) names.add(ApplicationStore.encodeKey(k).toLowerCase(Locale.ROOT));
+        assertEquals(keys.size(), names.size());
+    }
+}
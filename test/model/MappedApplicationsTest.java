@@ -0,0 +1,114 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** MappedApplications: เกรดใน .grades (overlay) replay/รวมเข้าไฟล์หลัก และการตัดงานด้วย tmp + move */
+class MappedApplicationsTest {
+
+    @TempDir Path dir;
+    private Path file;
+    private Path grades;
+
+    @BeforeEach
+    void writeFile() throws IOException {
+        file = dir.resolve("applications.csv");
+        grades = dir.resolve("applications.csv.grades");
+        Files.write(file, List.of(
+                "job_id,candidate_id,applied_at",
+                "j1,a,2030-01-01T09:00",
+                "j2,b,2030-01-01T09:01",
+                "j1,c,"));
+    }
+
+    private MappedApplications open() throws IOException {
+        MappedApplications m = new MappedApplications(file);
+        m.open();
+        return m;
+    }
+
+    private static List<String> rows(MappedApplications m) {
+        return m.all().stream().map(a -> a.jobId + "," + a.candidateId + "," + a.grade).collect(Collectors.toList());
+    }
+
+    private static void grade(MappedApplications m, String job, String cand, String g) throws IOException {
+        Application a = m.find(job, cand);
+        a.grade = g;
+        m.saveGrade(a);
+    }
+
+    @Test
+    void gradesGoToTheOverlayAndAreReplayedOnLoad() throws IOException {
+        MappedApplications m = open();
+        List<String> before = Files.readAllLines(file);
+        grade(m, "j2", "b", "A");
+        grade(m, "j2", "b", "C");
+
+        assertEquals(before, Files.readAllLines(file), "main file must not be rewritten per grade");
+        assertEquals(List.of("j2,b,A", "j2,b,C"), Files.readAllLines(grades));
+        assertEquals(List.of("j1,a,", "j2,b,C", "j1,c,"), rows(m));
+
+        // load() (ไม่รวมไฟล์) ต้องได้เกรดล่าสุดจาก overlay
+        MappedApplications replayed = new MappedApplications(file);
+        replayed.load();
+        assertEquals(List.of("j1,a,", "j2,b,C", "j1,c,"), rows(replayed));
+    }
+
+    @Test
+    void openCompactsTheOverlayIntoTheMainFile() throws IOException {
+        grade(open(), "j1", "c", "B");
+
+        MappedApplications m = open();
+        assertFalse(Files.exists(grades));
+        assertEquals(ApplicationStore.HEADER, Files.readAllLines(file).get(0));
+        assertEquals(List.of("j1,a,", "j2,b,", "j1,c,B"), rows(m));
+    }
+
+    @Test
+    void appendedRowsAreIndexedAndSurviveReopen() throws IOException {
+        MappedApplications m = open();
+        m.append(new Application("j3", "d", LocalDateTime.of(2030, 1, 2, 10, 0), ""));
+        assertNotNull(m.find("j3", "d"));
+        grade(m, "j3", "d", "F");
+
+        assertEquals(List.of("j1,a,", "j2,b,", "j1,c,", "j3,d,F"), rows(open()));
+    }
+
+    @Test
+    void removeJobsKeepsPendingGradesOfRemainingRows() throws IOException {
+        MappedApplications m = open();
+        grade(m, "j2", "b", "D");
+        grade(m, "j1", "a", "A");
+        List<Application> viewBefore = m.all();
+
+        List<Application> removed = m.removeJobs(Set.of("j1"));
+        assertEquals(2, removed.size());
+        assertFalse(Files.exists(dir.resolve("applications.csv.tmp")));
+        assertFalse(Files.exists(grades));
+        assertEquals(List.of("j2,b,D"), rows(m));
+        assertEquals(List.of("j2,b,D"), rows(open()));
+
+        // รายการที่ถืออยู่ก่อนตัดยังอ่านแถวเดิมของตัวเอง (ไม่ปนเกรดของแถวเลขเดียวกันใน mapping ใหม่)
+        assertEquals("j1,a,A", viewBefore.get(0).jobId + "," + viewBefore.get(0).candidateId + "," + viewBefore.get(0).grade);
+        assertEquals("j2", viewBefore.get(1).jobId);
+    }
+
+    @Test
+    void ofJobsDecodesOnlyMatchingRows() throws IOException {
+        MappedApplications m = open();
+        List<String> j1 = new java.util.ArrayList<>();
+        for (Application a : m.ofJobs(Set.of("j1"))) j1.add(a.candidateId);
+        assertEquals(List.of("a", "c"), j1);
+    }
+}